@@ -0,0 +1,141 @@
+//기물별 공격 칸을 비트보드로 미리 계산해 둔 표
+//칸 번호는 Board 와 같이 y * 8 + x (비트 번호와 동일)
+final class Attacks {
+    //방향 번호: 0~3은 칸 번호가 증가하는 방향, 4~7은 감소하는 방향
+    private static final int[][] DIRS = {
+            {0,1},{1,0},{1,1},{1,-1},
+            {0,-1},{-1,0},{-1,-1},{-1,1}
+    };
+    private static final int[] ROOK_DIRS = {0, 1, 4, 5};
+    private static final int[] BISHOP_DIRS = {2, 3, 6, 7};
+    //a 파일(x = 0)과 h 파일(x = 7) 칸들
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = 0x8080808080808080L;
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    //PAWN[색상][칸]: 그 색 폰이 해당 칸에서 공격하는 칸들
+    private static final long[][] PAWN = new long[2][64];
+    //RAYS[방향][칸]: 해당 칸에서 그 방향으로 보드 끝까지의 칸들 (출발 칸 제외)
+    private static final long[][] RAYS = new long[8][64];
+    //BETWEEN[a][b]: 같은 줄(가로, 세로, 대각선)에 있는 두 칸 사이의 칸들 (양 끝 제외, 같은 줄이 아니면 0)
+    private static final long[][] BETWEEN = new long[64][64];
+    //LINE[a][b]: 두 칸을 지나는 줄 전체 (보드 끝에서 끝까지, 같은 줄이 아니면 0)
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightSteps = {
+                {-2,-1},{-2,1},{-1,-2},{-1,2},
+                {1,-2},{1,2},{2,-1},{2,1}
+        };
+        for(int square = 0; square < 64; square++){
+            int y = square / 8;
+            int x = square % 8;
+            for(int i = 0; i < 8; i++){
+                KNIGHT[square] |= bit(y + knightSteps[i][0], x + knightSteps[i][1]);
+                KING[square] |= bit(y + DIRS[i][0], x + DIRS[i][1]);
+
+                int ry = y + DIRS[i][0];
+                int rx = x + DIRS[i][1];
+                while(ry >= 0 && ry < 8 && rx >= 0 && rx < 8){
+                    RAYS[i][square] |= bit(ry, rx);
+                    ry += DIRS[i][0];
+                    rx += DIRS[i][1];
+                }
+            }
+            //백 폰은 y가 줄어드는 쪽, 흑 폰은 y가 늘어나는 쪽을 공격
+            PAWN[Color.WHITE.ordinal()][square] = bit(y - 1, x - 1) | bit(y - 1, x + 1);
+            PAWN[Color.BLACK.ordinal()][square] = bit(y + 1, x - 1) | bit(y + 1, x + 1);
+        }
+
+        //방향 i 와 i + 4 는 서로 반대 방향
+        for(int square = 0; square < 64; square++){
+            for(int i = 0; i < 8; i++){
+                long ray = RAYS[i][square];
+                long line = ray | RAYS[(i + 4) % 8][square] | (1L << square);
+                while(ray != 0){
+                    int target = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+                    BETWEEN[square][target] = RAYS[i][square] & ~RAYS[i][target] & ~(1L << target);
+                    LINE[square][target] = line;
+                }
+            }
+        }
+    }
+
+    private Attacks(){
+    }
+
+    //보드 밖 좌표는 0
+    private static long bit(int y, int x){
+        if(y < 0 || y >= 8 || x < 0 || x >= 8){
+            return 0L;
+        }
+        return 1L << (y * 8 + x);
+    }
+
+    static long knight(int square){
+        return KNIGHT[square];
+    }
+
+    static long king(int square){
+        return KING[square];
+    }
+
+    static long pawn(Color color, int square){
+        return PAWN[color.ordinal()][square];
+    }
+
+    //여러 폰이 한꺼번에 공격하는 칸 (파일 끝에서 넘어가지 않도록 잘라서 이동)
+    static long pawns(Color color, long pawns){
+        if(color == Color.WHITE){
+            //백은 y - 1 쪽: 왼쪽 대각선 -9, 오른쪽 대각선 -7
+            return ((pawns & ~FILE_A) >>> 9) | ((pawns & ~FILE_H) >>> 7);
+        }
+        return ((pawns & ~FILE_A) << 7) | ((pawns & ~FILE_H) << 9);
+    }
+
+    static long between(int from, int to){
+        return BETWEEN[from][to];
+    }
+
+    static long line(int from, int to){
+        return LINE[from][to];
+    }
+
+    //룩의 공격 칸 (처음 막히는 칸까지 포함)
+    static long rook(int square, long occupied){
+        long attacks = 0L;
+        for(int i = 0; i < ROOK_DIRS.length; i++){
+            attacks |= ray(ROOK_DIRS[i], square, occupied);
+        }
+        return attacks;
+    }
+
+    //비숍의 공격 칸 (처음 막히는 칸까지 포함)
+    static long bishop(int square, long occupied){
+        long attacks = 0L;
+        for(int i = 0; i < BISHOP_DIRS.length; i++){
+            attacks |= ray(BISHOP_DIRS[i], square, occupied);
+        }
+        return attacks;
+    }
+
+    static long queen(int square, long occupied){
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    //한 방향의 광선에서 첫 번째로 막는 기물 뒤쪽 칸을 잘라냄
+    private static long ray(int dir, int square, long occupied){
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if(blockers == 0){
+            return ray;
+        }
+        //증가 방향은 가장 낮은 비트, 감소 방향은 가장 높은 비트가 가장 가까운 기물
+        int blocker = (dir < 4)
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[dir][blocker];
+    }
+}
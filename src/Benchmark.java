@@ -0,0 +1,369 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//Board, Piece, Game 핵심 경로의 처리량 측정 도구 (콘솔 게임 루프와 분리된 별도 실행)
+//워밍업 후 정해진 시간 동안 반복 실행하여 초당 연산 수를 구하고, JMH 결과와 모양이 같은 JSON 으로 저장
+//JMH 자체를 쓰지는 않음: 이 트리는 pom.xml / build.gradle 없이 IntelliJ 모듈(Java_Chess.iml)로만 빌드하므로
+//JMH 를 쓰려면 빌드 도구와 외부 의존성(jmh-core, 어노테이션 처리기)부터 들여야 함
+//대신 JMH 가 막아 주는 측정 오류 중 이 작업들에 해당하는 것은 직접 막음
+//  fork: 측정마다 새 JVM (아래), 워밍업: --warmup 회 반복은 버림,
+//  죽은 코드 제거: 작업 결과를 모아 volatile sink 에 씀 (Blackhole 역할), 오차: 99.9% 신뢰구간 반폭
+//JMH 가 생성 코드로 하는 루프 최적화 방지는 없으므로, 수 ns 짜리 작업끼리의 작은 차이는 믿지 말 것
+//측정 하나(작업, 국면)마다 새 JVM 을 띄워 앞 측정의 JIT 프로파일이 다음 측정에 섞이지 않게 함 (JMH 의 fork 와 같음)
+//--fork 0 이면 한 JVM 안에서 차례로 측정 (빠르지만 측정끼리 프로파일이 섞임)
+//사용법: java Benchmark [--warmup N] [--iterations N] [--time ms] [--fork 0|1] [--json 파일] [--filter 이름]
+final class Benchmark {
+    //표준 perft 테스트 국면
+    static final String[][] POSITIONS = {
+            {"start", Fen.START_POSITION},
+            {"kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"},
+            {"endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"},
+            {"promotion", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"},
+            {"middlegame", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"},
+            {"symmetric", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"}
+    };
+
+    //자식 JVM 이 점수를 넘기는 줄의 머리
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    //측정 대상 작업 (결과값은 JIT 가 계산을 지우지 못하도록 sink 에 모음)
+    interface Task {
+        long run();
+    }
+
+    //측정 결과 하나 (반복별 초당 연산 수)
+    static final class Result {
+        final String benchmark;
+        final String position;
+        final double[] scores;
+
+        Result(String benchmark, String position, double[] scores){
+            this.benchmark = benchmark;
+            this.position = position;
+            this.scores = scores;
+        }
+
+        double mean(){
+            double sum = 0;
+            for(int i = 0; i < scores.length; i++){
+                sum += scores[i];
+            }
+            return sum / scores.length;
+        }
+
+        double stdDev(){
+            if(scores.length < 2){
+                return 0;
+            }
+            double mean = mean();
+            double sum = 0;
+            for(int i = 0; i < scores.length; i++){
+                sum += (scores[i] - mean) * (scores[i] - mean);
+            }
+            return Math.sqrt(sum / (scores.length - 1));
+        }
+
+        //99.9% 신뢰구간의 반폭 (JMH 의 scoreError 와 같은 정의, 반복이 하나면 NaN)
+        double error(){
+            if(scores.length < 2){
+                return Double.NaN;
+            }
+            return studentT999(scores.length - 1) * stdDev() / Math.sqrt(scores.length);
+        }
+    }
+
+    //양측 99.9% (누적 0.9995) t 분포 분위수, 자유도 1..30
+    private static final double[] T_999 = {
+            636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+            4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+            3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+
+    //표에 없는 자유도는 그보다 작은 가장 가까운 자유도의 값을 씀 (구간이 조금 넓어지는 쪽)
+    static double studentT999(int degreesOfFreedom){
+        if(degreesOfFreedom <= T_999.length){
+            return T_999[degreesOfFreedom - 1];
+        }
+        if(degreesOfFreedom < 40) return 3.646;
+        if(degreesOfFreedom < 60) return 3.551;
+        if(degreesOfFreedom < 120) return 3.460;
+        return 3.373;
+    }
+
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+
+    Benchmark(int warmupIterations, int measureIterations, long iterationMillis){
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    //작업 하나를 워밍업 후 측정
+    Result measure(String benchmark, String position, Task task){
+        for(int i = 0; i < warmupIterations; i++){
+            runIteration(task);
+        }
+        double[] scores = new double[measureIterations];
+        for(int i = 0; i < measureIterations; i++){
+            scores[i] = runIteration(task);
+        }
+        return new Result(benchmark, position, scores);
+    }
+
+    //정해진 시간 동안 반복 실행하고 초당 실행 횟수 반환
+    private double runIteration(Task task){
+        long ops = 0;
+        long acc = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do{
+            //시간 확인 비용을 줄이기 위해 여러 번 묶어서 실행
+            for(int i = 0; i < 64; i++){
+                acc += task.run();
+            }
+            ops += 64;
+            elapsed = System.nanoTime() - start;
+        } while(elapsed < iterationNanos);
+        sink += acc;
+        return ops * 1e9 / elapsed;
+    }
+
+    //국면 하나에 대한 모든 측정 작업 목록
+    static List<String> taskNames(){
+        List<String> names = new ArrayList<>();
+        names.add("Board.copy");
+        PieceType[] types = PieceType.values();
+        for(int i = 0; i < types.length; i++){
+            names.add("Piece.generateMoves." + types[i]);
+        }
+        names.add("Piece.getValidMoves");
+        names.add("Piece.mobility");
+        names.add("Board.getAttackedSquares");
+        names.add("Evaluator.evaluate");
+        names.add("Game.isKingInCheck");
+        names.add("Game.hasAnyLegalMoves");
+        names.add("Game.legalMoves");
+        return names;
+    }
+
+    static Task createTask(String name, Board board){
+        MoveGenerator generator = new MoveGenerator(board);
+        MoveList moves = new MoveList();
+        Color side = board.getSideToMove();
+
+        if(name.equals("Board.copy")){
+            return () -> board.copy().getZobristKey();
+        }
+        if(name.startsWith("Piece.generateMoves.")){
+            PieceType type = PieceType.valueOf(name.substring("Piece.generateMoves.".length()));
+            List<Piece> pieces = new ArrayList<>();
+            for(int c = 0; c < 2; c++){
+                List<Piece> all = board.getPieces(c == 0 ? Color.WHITE : Color.BLACK);
+                for(int i = 0; i < all.size(); i++){
+                    if(all.get(i).getType() == type){
+                        pieces.add(all.get(i));
+                    }
+                }
+            }
+            return () -> {
+                moves.clear();
+                for(int i = 0; i < pieces.size(); i++){
+                    pieces.get(i).generateMoves(board, moves);
+                }
+                return moves.size();
+            };
+        }
+        if(name.equals("Piece.getValidMoves")){
+            List<Piece> pieces = new ArrayList<>(board.getPieces(side));
+            return () -> {
+                long count = 0;
+                for(int i = 0; i < pieces.size(); i++){
+                    count += pieces.get(i).getValidMoves(board).size();
+                }
+                return count;
+            };
+        }
+        if(name.equals("Piece.mobility")){
+            List<Piece> pieces = new ArrayList<>(board.getPieces(side));
+            return () -> {
+                long count = 0;
+                for(int i = 0; i < pieces.size(); i++){
+                    count += pieces.get(i).mobility(board);
+                }
+                return count;
+            };
+        }
+        if(name.equals("Board.getAttackedSquares")){
+            return () -> board.getAttackedSquares(Color.WHITE) ^ board.getAttackedSquares(Color.BLACK);
+        }
+        if(name.equals("Evaluator.evaluate")){
+            Evaluator evaluator = new Evaluator();
+            return () -> evaluator.evaluate(board);
+        }
+        if(name.equals("Game.isKingInCheck")){
+            return () -> generator.isKingInCheck(side) ? 1 : 0;
+        }
+        if(name.equals("Game.hasAnyLegalMoves")){
+            return () -> generator.hasAnyLegalMoves(side) ? 1 : 0;
+        }
+        if(name.equals("Game.legalMoves")){
+            return () -> {
+                moves.clear();
+                generator.generateLegalMoves(moves);
+                return moves.size();
+            };
+        }
+        throw new IllegalArgumentException("알 수 없는 측정 작업: " + name);
+    }
+
+    //JMH 의 -rf json 과 같은 모양으로 결과를 저장 (JMH 가 만든 파일은 아님)
+    //scoreError 는 JMH 와 같이 99.9% 신뢰구간의 반폭이므로 JMH 비교 도구가 오차 막대를 그대로 읽을 수 있음
+    static String toJson(List<Result> results){
+        StringBuilder sb = new StringBuilder("[\n");
+        for(int i = 0; i < results.size(); i++){
+            Result r = results.get(i);
+            sb.append("  {\n");
+            sb.append("    \"benchmark\": \"").append(r.benchmark).append("\",\n");
+            sb.append("    \"mode\": \"thrpt\",\n");
+            sb.append("    \"measurementIterations\": ").append(r.scores.length).append(",\n");
+            sb.append("    \"params\": {\"position\": \"").append(r.position).append("\"},\n");
+            sb.append("    \"primaryMetric\": {\n");
+            sb.append("      \"score\": ").append(format(r.mean())).append(",\n");
+            sb.append("      \"scoreError\": ").append(formatError(r.error())).append(",\n");
+            sb.append("      \"scoreConfidence\": [").append(formatError(r.mean() - r.error())).append(", ")
+                    .append(formatError(r.mean() + r.error())).append("],\n");
+            sb.append("      \"scoreUnit\": \"ops/s\",\n");
+            sb.append("      \"rawData\": [[");
+            for(int k = 0; k < r.scores.length; k++){
+                if(k > 0){
+                    sb.append(", ");
+                }
+                sb.append(format(r.scores[k]));
+            }
+            sb.append("]]\n");
+            sb.append("    }\n");
+            sb.append((i + 1 < results.size()) ? "  },\n" : "  }\n");
+        }
+        sb.append("]\n");
+        return sb.toString();
+    }
+
+    private static String format(double value){
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    //JMH 는 구할 수 없는 오차를 문자열 "NaN" 으로 씀
+    private static String formatError(double value){
+        return Double.isNaN(value) ? "\"NaN\"" : format(value);
+    }
+
+    //측정 하나를 새 JVM 에서 실행하고 반복별 점수를 받아 옴
+    private static Result measureForked(String name, int position, int warmup, int iterations, long time)
+            throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "Benchmark", "--run", name, String.valueOf(position),
+                "--warmup", String.valueOf(warmup), "--iterations", String.valueOf(iterations),
+                "--time", String.valueOf(time));
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        double[] scores = null;
+        List<String> output = new ArrayList<>();
+        try(BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))){
+            String line;
+            while((line = reader.readLine()) != null){
+                if(line.startsWith(RESULT_PREFIX)){
+                    String[] parts = line.substring(RESULT_PREFIX.length()).trim().split(" ");
+                    scores = new double[parts.length];
+                    for(int i = 0; i < parts.length; i++){
+                        scores[i] = Double.parseDouble(parts[i]);
+                    }
+                }
+                else{
+                    output.add(line);
+                }
+            }
+        }
+        int exit = process.waitFor();
+        if(exit != 0 || scores == null){
+            throw new IllegalStateException(name + " 측정 JVM 이 실패했습니다 (종료 코드 " + exit + "): " + output);
+        }
+        return new Result(name, POSITIONS[position][0], scores);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int warmup = 3;
+        int iterations = 5;
+        long time = 500;
+        int fork = 1;
+        String jsonPath = null;
+        String filter = null;
+        String runName = null;
+        int runPosition = -1;
+        for(int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--fork": fork = Integer.parseInt(args[++i]); break;
+                case "--run": runName = args[++i]; runPosition = Integer.parseInt(args[++i]); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--iterations": iterations = Integer.parseInt(args[++i]); break;
+                case "--time": time = Long.parseLong(args[++i]); break;
+                case "--json": jsonPath = args[++i]; break;
+                case "--filter": filter = args[++i]; break;
+                default: throw new IllegalArgumentException("알 수 없는 옵션: " + args[i]);
+            }
+        }
+
+        Benchmark benchmark = new Benchmark(warmup, iterations, time);
+        //자식 JVM: 측정 하나만 하고 점수를 한 줄로 출력
+        if(runName != null){
+            Board board = Fen.parse(POSITIONS[runPosition][1]);
+            Result result = benchmark.measure(runName, POSITIONS[runPosition][0], createTask(runName, board));
+            StringBuilder line = new StringBuilder(RESULT_PREFIX);
+            for(int i = 0; i < result.scores.length; i++){
+                line.append(i > 0 ? " " : "").append(result.scores[i]);
+            }
+            System.out.println(line);
+            return;
+        }
+
+        List<Result> results = new ArrayList<>();
+        List<String> names = taskNames();
+        for(int n = 0; n < names.size(); n++){
+            String name = names.get(n);
+            if(filter != null && !name.contains(filter)){
+                continue;
+            }
+            for(int p = 0; p < POSITIONS.length; p++){
+                Result result;
+                if(fork > 0){
+                    result = measureForked(name, p, warmup, iterations, time);
+                }
+                else{
+                    //국면마다 새 보드로 측정 (JIT 프로파일은 앞 측정의 것이 남음)
+                    Board board = Fen.parse(POSITIONS[p][1]);
+                    result = benchmark.measure(name, POSITIONS[p][0], createTask(name, board));
+                }
+                results.add(result);
+                System.out.printf(Locale.ROOT, "%-32s %-12s %14.1f ± %.1f ops/s (99.9%%)%n",
+                        name, POSITIONS[p][0], result.mean(), result.error());
+            }
+        }
+
+        if(jsonPath != null){
+            Files.write(Paths.get(jsonPath), toJson(results).getBytes(StandardCharsets.UTF_8));
+            System.out.println("결과 저장: " + jsonPath);
+        }
+    }
+}
@@ -1,50 +1,120 @@
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class Board {
+public final class Board {
     public static final int BOARD_SIZE = 8;
-    private final Piece[][] grid;
-    private Move lastMove;
+    public static final int SQUARE_COUNT = BOARD_SIZE * BOARD_SIZE;
+    private static final int PIECE_TYPE_COUNT = PieceType.values().length;
+
+    //칸 번호(y * 8 + x)로 바로 찾는 기물 배열
+    private final Piece[] squares;
+    //색상 * 6 + 기물 종류 순서의 12개 비트보드 (비트 번호 = 칸 번호)
+    private final long[] pieceBitboards;
+    //색상별 점유 비트보드
+    private final long[] colorOccupancy;
+    //전체 점유 비트보드
+    private long occupied;
+    //색상별 기물 목록과 외부 공개용 읽기 전용 뷰
+    private final List<Piece>[] pieceLists;
+    private final List<Piece>[] pieceListViews;
+    //색상별 킹의 칸 번호 (없으면 -1)
+    private final int[] kingSquares;
+    //마지막으로 수행된 이동 (PackedMove, 없으면 PackedMove.NONE)
+    private int lastMove;
+
+    //캐슬링 권리 비트 (hasMoved 로부터 계산)
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    //Zobrist 키와 키 계산에 들어간 상태 (차례, 캐슬링 권리, 앙파상 열)
+    private long zobristKey;
+    private Color sideToMove;
+    private int castlingRights;
+    private int enPassantFile;
+
+    //50수 규칙용 반수 카운터와 전체 수 번호 (FEN 의 마지막 두 필드)
+    private int halfmoveClock;
+    private int fullmoveNumber;
+
+    //makeMove 로 쌓인 되돌리기 기록 (객체를 재사용하여 할당을 줄임)
+    private UndoInfo[] undoStack;
+    private int undoCount;
 
     public Board(){
-        this.grid = new Piece[BOARD_SIZE][BOARD_SIZE];
-        this.lastMove = null;
+        this(true);
         initialize();
     }
 
     private Board(boolean isEmpty){
-        this.grid = new Piece[BOARD_SIZE][BOARD_SIZE];
-        this.lastMove = null;
+        this.squares = new Piece[SQUARE_COUNT];
+        this.pieceBitboards = new long[2 * PIECE_TYPE_COUNT];
+        this.colorOccupancy = new long[2];
+        this.occupied = 0L;
+        this.pieceLists = newPieceListArray();
+        this.pieceListViews = newPieceListArray();
+        for(int c = 0; c < 2; c++){
+            this.pieceLists[c] = new ArrayList<>(16);
+            this.pieceListViews[c] = Collections.unmodifiableList(this.pieceLists[c]);
+        }
+        this.kingSquares = new int[]{-1, -1};
+        this.lastMove = PackedMove.NONE;
+        this.zobristKey = 0L;
+        this.sideToMove = Color.WHITE;
+        this.castlingRights = 0;
+        this.enPassantFile = -1;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.undoStack = new UndoInfo[16];
+        this.undoCount = 0;
+    }
+
+    //빈 보드 생성 (FEN 등에서 기물을 직접 배치할 때 사용)
+    static Board empty(){
+        return new Board(true);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Piece>[] newPieceListArray(){
+        return (List<Piece>[]) new List[2];
     }
 
     private void initialize(){
         //흑팀 기물 배치
-        grid[0][0] = new Rook(Color.BLACK, new Position(0,0));
-        grid[0][1] = new Knight(Color.BLACK, new Position(0,1));
-        grid[0][2] = new Bishop(Color.BLACK, new Position(0,2));
-        grid[0][3] = new Queen(Color.BLACK, new Position(0,3));
-        grid[0][4] = new King(Color.BLACK, new Position(0,4));
-        grid[0][5] = new Bishop(Color.BLACK, new Position(0,5));
-        grid[0][6] = new Knight(Color.BLACK, new Position(0,6));
-        grid[0][7] = new Rook(Color.BLACK, new Position(0,7));
+        place(new Rook(Color.BLACK, Position.of(0,0)));
+        place(new Knight(Color.BLACK, Position.of(0,1)));
+        place(new Bishop(Color.BLACK, Position.of(0,2)));
+        place(new Queen(Color.BLACK, Position.of(0,3)));
+        place(new King(Color.BLACK, Position.of(0,4)));
+        place(new Bishop(Color.BLACK, Position.of(0,5)));
+        place(new Knight(Color.BLACK, Position.of(0,6)));
+        place(new Rook(Color.BLACK, Position.of(0,7)));
         for(int k = 0; k < 8; k++){
-            grid[1][k] = new Pawn(Color.BLACK, new Position(1,k));
+            place(new Pawn(Color.BLACK, Position.of(1,k)));
         }
 
         //백팀 기물 배치
-        grid[7][0] = new Rook(Color.WHITE, new Position(7,0));
-        grid[7][1] = new Knight(Color.WHITE, new Position(7,1));
-        grid[7][2] = new Bishop(Color.WHITE, new Position(7,2));
-        grid[7][3] = new Queen(Color.WHITE, new Position(7,3));
-        grid[7][4] = new King(Color.WHITE, new Position(7,4));
-        grid[7][5] = new Bishop(Color.WHITE, new Position(7,5));
-        grid[7][6] = new Knight(Color.WHITE, new Position(7,6));
-        grid[7][7] = new Rook(Color.WHITE, new Position(7,7));
+        place(new Rook(Color.WHITE, Position.of(7,0)));
+        place(new Knight(Color.WHITE, Position.of(7,1)));
+        place(new Bishop(Color.WHITE, Position.of(7,2)));
+        place(new Queen(Color.WHITE, Position.of(7,3)));
+        place(new King(Color.WHITE, Position.of(7,4)));
+        place(new Bishop(Color.WHITE, Position.of(7,5)));
+        place(new Knight(Color.WHITE, Position.of(7,6)));
+        place(new Rook(Color.WHITE, Position.of(7,7)));
         for(int k = 0; k < 8; k++){
-            grid[6][k] = new Pawn(Color.WHITE, new Position(6,k));
+            place(new Pawn(Color.WHITE, Position.of(6,k)));
         }
 
         //나머지 칸은 생성자에 의해 null로 초기화
+        refreshStateKeys();
+    }
+
+    //기물을 자신의 위치에 배치
+    private void place(Piece piece){
+        setPieceAt(piece.getPosition(), piece);
     }
 
     // 지정된 위치의 Piece 객체 반환
@@ -54,29 +124,226 @@ public class Board {
         if(!pos.isWithinBoard()){
             return null;
         }
-        return grid[pos.getY()][pos.getX()];
+        return squares[squareOf(pos)];
+    }
+
+    //칸 번호로 기물 반환 (0~63)
+    Piece getPieceAt(int square){
+        return squares[square];
     }
 
     //지정된 위치에 기물을 설정
     void setPieceAt(Position pos, Piece piece){
         if(pos.isWithinBoard()){
-            grid[pos.getY()][pos.getX()] = piece;
+            int square = squareOf(pos);
+            removePieceAt(square);
+            if(piece != null){
+                putPieceAt(square, piece);
+            }
+            refreshStateKeys();
+        }
+    }
+
+    //빈 칸에 기물을 놓고 비트보드, 기물 목록 갱신
+    private void putPieceAt(int square, Piece piece){
+        putPieceAt(square, piece, -1);
+    }
+
+    //listIndex 가 0 이상이면 기물 목록의 그 자리에 다시 끼워 넣음 (되돌리기에서 순서 유지)
+    private void putPieceAt(int square, Piece piece, int listIndex){
+        int c = piece.getColor().ordinal();
+        long bit = 1L << square;
+        squares[square] = piece;
+        pieceBitboards[bitboardIndex(piece.getColor(), piece.getType())] |= bit;
+        colorOccupancy[c] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.piece(piece.getColor(), piece.getType(), square);
+        if(listIndex >= 0){
+            pieceLists[c].add(listIndex, piece);
+        }
+        else{
+            pieceLists[c].add(piece);
+        }
+        if(piece instanceof King){
+            kingSquares[c] = square;
         }
     }
 
+    //칸의 기물을 치우고 비트보드, 기물 목록 갱신, 치운 기물 반환
+    private Piece removePieceAt(int square){
+        Piece piece = squares[square];
+        if(piece == null){
+            return null;
+        }
+        int c = piece.getColor().ordinal();
+        long mask = ~(1L << square);
+        squares[square] = null;
+        pieceBitboards[bitboardIndex(piece.getColor(), piece.getType())] &= mask;
+        colorOccupancy[c] &= mask;
+        occupied &= mask;
+        zobristKey ^= Zobrist.piece(piece.getColor(), piece.getType(), square);
+        pieceLists[c].remove(piece);
+        if(piece instanceof King){
+            kingSquares[c] = -1;
+        }
+        return piece;
+    }
+
+    //기물을 빈 칸으로 옮김 (기물 목록의 순서는 그대로 유지)
+    private void relocatePiece(int from, int to){
+        Piece piece = squares[from];
+        int c = piece.getColor().ordinal();
+        long fromTo = (1L << from) | (1L << to);
+        squares[from] = null;
+        squares[to] = piece;
+        pieceBitboards[bitboardIndex(piece.getColor(), piece.getType())] ^= fromTo;
+        colorOccupancy[c] ^= fromTo;
+        occupied ^= fromTo;
+        zobristKey ^= Zobrist.piece(piece.getColor(), piece.getType(), from)
+                ^ Zobrist.piece(piece.getColor(), piece.getType(), to);
+        if(piece instanceof King){
+            kingSquares[c] = to;
+        }
+    }
+
+    //특정 색상의 기물 목록 (읽기 전용, 보드가 바뀌면 함께 바뀜)
+    public List<Piece> getPieces(Color color){
+        return pieceListViews[color.ordinal()];
+    }
+
+    //특정 색상 킹의 칸 번호 (없으면 -1)
+    public int getKingSquare(Color color){
+        return kingSquares[color.ordinal()];
+    }
+
+    //특정 색상 킹의 위치 (없으면 null)
+    public Position getKingPosition(Color color){
+        int square = kingSquares[color.ordinal()];
+        if(square < 0){
+            return null;
+        }
+        return Position.ofIndex(square);
+    }
+
     //해당 위치가 비어있는지 확인
     public boolean isEmpty(Position pos){
-        return getPieceAt(pos) == null;
+        if(!pos.isWithinBoard()){
+            return true;
+        }
+        return (occupied & (1L << squareOf(pos))) == 0;
     }
 
     //해당 위치에 적 기물이 있는지 확인
     public boolean isEnemy(Position pos, Color myColor){
-        Piece piece = getPieceAt(pos);
-        return piece != null && piece.getColor() != myColor;
+        if(!pos.isWithinBoard()){
+            return false;
+        }
+        Color opponent = (myColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        return (colorOccupancy[opponent.ordinal()] & (1L << squareOf(pos))) != 0;
+    }
+
+    //특정 색상, 종류 기물의 비트보드 반환
+    public long getPieceBitboard(Color color, PieceType type){
+        return pieceBitboards[bitboardIndex(color, type)];
+    }
+
+    //특정 색상 기물이 있는 칸의 비트보드 반환
+    public long getColorOccupancy(Color color){
+        return colorOccupancy[color.ordinal()];
+    }
+
+    //기물이 있는 모든 칸의 비트보드 반환
+    public long getOccupancy(){
+        return occupied;
+    }
+
+    //해당 칸이 특정 색상 기물에게 공격받는지 확인
+    //목표 칸에서 거꾸로 각 기물의 공격 범위를 비춰 보고 그 자리에 해당 기물이 있는지 확인
+    public boolean isSquareAttacked(int square, Color byColor){
+        return isSquareAttacked(square, byColor, occupied);
+    }
+
+    //occupancy 를 실제 점유 대신 사용 (예: 킹을 뺀 점유로 킹이 물러날 칸이 안전한지 확인)
+    boolean isSquareAttacked(int square, Color byColor, long occupancy){
+        Color defender = (byColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        if((Attacks.pawn(defender, square) & getPieceBitboard(byColor, PieceType.PAWN)) != 0){
+            return true;
+        }
+        if((Attacks.knight(square) & getPieceBitboard(byColor, PieceType.KNIGHT)) != 0){
+            return true;
+        }
+        if((Attacks.king(square) & getPieceBitboard(byColor, PieceType.KING)) != 0){
+            return true;
+        }
+        long queens = getPieceBitboard(byColor, PieceType.QUEEN);
+        long diagonal = getPieceBitboard(byColor, PieceType.BISHOP) | queens;
+        if(diagonal != 0 && (Attacks.bishop(square, occupancy) & diagonal) != 0){
+            return true;
+        }
+        long straight = getPieceBitboard(byColor, PieceType.ROOK) | queens;
+        return straight != 0 && (Attacks.rook(square, occupancy) & straight) != 0;
+    }
+
+    //color 기물들이 공격하는 모든 칸 (기물 목록이나 Move 를 만들지 않고 비트보드로만 계산)
+    public long getAttackedSquares(Color color){
+        long attacks = Attacks.pawns(color, getPieceBitboard(color, PieceType.PAWN));
+        long knights = getPieceBitboard(color, PieceType.KNIGHT);
+        while(knights != 0){
+            attacks |= Attacks.knight(Long.numberOfTrailingZeros(knights));
+            knights &= knights - 1;
+        }
+        long queens = getPieceBitboard(color, PieceType.QUEEN);
+        long diagonal = getPieceBitboard(color, PieceType.BISHOP) | queens;
+        while(diagonal != 0){
+            attacks |= Attacks.bishop(Long.numberOfTrailingZeros(diagonal), occupied);
+            diagonal &= diagonal - 1;
+        }
+        long straight = getPieceBitboard(color, PieceType.ROOK) | queens;
+        while(straight != 0){
+            attacks |= Attacks.rook(Long.numberOfTrailingZeros(straight), occupied);
+            straight &= straight - 1;
+        }
+        int kingSquare = kingSquares[color.ordinal()];
+        if(kingSquare >= 0){
+            attacks |= Attacks.king(kingSquare);
+        }
+        return attacks;
+    }
+
+    //byColor 기물 중 square 를 공격하는 기물들의 비트보드
+    long attackersTo(int square, Color byColor){
+        Color defender = (byColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        long queens = getPieceBitboard(byColor, PieceType.QUEEN);
+        return (Attacks.pawn(defender, square) & getPieceBitboard(byColor, PieceType.PAWN))
+                | (Attacks.knight(square) & getPieceBitboard(byColor, PieceType.KNIGHT))
+                | (Attacks.king(square) & getPieceBitboard(byColor, PieceType.KING))
+                | (Attacks.bishop(square, occupied) & (getPieceBitboard(byColor, PieceType.BISHOP) | queens))
+                | (Attacks.rook(square, occupied) & (getPieceBitboard(byColor, PieceType.ROOK) | queens));
+    }
+
+    public boolean isSquareAttacked(Position pos, Color byColor){
+        return pos.isWithinBoard() && isSquareAttacked(squareOf(pos), byColor);
+    }
+
+    //좌표를 칸 번호(비트 번호)로 변환
+    static int squareOf(Position pos){
+        return pos.index();
+    }
+
+    private static int bitboardIndex(Color color, PieceType type){
+        return color.ordinal() * PIECE_TYPE_COUNT + type.ordinal();
     }
 
     //앙파상 검사를 위해 마지막으로 수행된 이동 반환
     public Move getLastMove(){
+        if(lastMove == PackedMove.NONE){
+            return null;
+        }
+        return PackedMove.toMove(lastMove);
+    }
+
+    //마지막 이동을 Move 객체 없이 반환 (없으면 PackedMove.NONE)
+    int getLastPackedMove(){
         return this.lastMove;
     }
 
@@ -91,7 +358,7 @@ public class Board {
         for(int y = 0; y < BOARD_SIZE; y++){
             System.out.print(" " + y + " ");
             for(int x = 0; x < BOARD_SIZE; x++){
-                Piece piece = grid[y][x];
+                Piece piece = squares[y * BOARD_SIZE + x];
                 char pieceChar = getPieceChar(piece);
                 System.out.print("| " + pieceChar + " ");
             }
@@ -155,16 +422,18 @@ public class Board {
             return null;//이동할 기물X
         }
 
-        Piece capturedPiece = getPieceAt(to);//잡힐 기물
-        //기물 이동 기물을 위치로 옮기고 원래 자리는 null로
-        setPieceAt(to,pieceToMove);
-        setPieceAt(from,null);
+        //잡힐 기물을 치우고 이동 기물을 위치로 옮김 (원래 자리는 null로)
+        Piece capturedPiece = removePieceAt(squareOf(to));
+        relocatePiece(squareOf(from), squareOf(to));
 
         //기물 객체 내부 좌표 업데이트
         pieceToMove.setPosition(to);
         pieceToMove.setHasMoved(true);
 
-        this.lastMove = move;
+        this.lastMove = PackedMove.of(move);
+        advanceClocks(pieceToMove instanceof Pawn || capturedPiece != null);
+        switchSideToMove();
+        refreshStateKeys();
 
         return capturedPiece;
     }
@@ -177,7 +446,7 @@ public class Board {
 
         //잡힌 상태 폰을 제거(앙파상은 목적지에 기물이 없음)
         int capturedPawnY = (pawn.getColor() == Color.WHITE) ? pawnMove.to().getY() + 1: pawnMove.to().getY() - 1;
-        Position capturedPawnPos = new Position(capturedPawnY,pawnMove.to().getX());
+        Position capturedPawnPos = Position.of(capturedPawnY,pawnMove.to().getX());
         setPieceAt(capturedPawnPos,null);
     }
 
@@ -192,64 +461,357 @@ public class Board {
         //킹의 이동 방향에 따라 룩을 이동
         Position rookFrom, rookTo;
         if(to.getX() > from.getX()){
-            rookFrom = new Position(from.getY(),7); // Y 5
-            rookTo = new Position(from.getY(),5); // Y 7
+            rookFrom = Position.of(from.getY(),7); // Y 5
+            rookTo = Position.of(from.getY(),5); // Y 7
         }
         else{
-            rookFrom = new Position(to.getY(),0); // Y 0
-            rookTo = new Position(to.getY(),3); // Y 3
+            rookFrom = Position.of(to.getY(),0); // Y 0
+            rookTo = Position.of(to.getY(),3); // Y 3
         }
 
         Piece rook = getPieceAt(rookFrom);
         if(rook != null){
-            setPieceAt(rookTo,rook);
-            setPieceAt(rookFrom,null);
+            relocatePiece(squareOf(rookFrom), squareOf(rookTo));
             rook.setPosition(rookTo);
             rook.setHasMoved(true);
+            refreshStateKeys();
         }
     }
 
-    public Board copy(){
-        Board newBoard = new Board(true);
+    //되돌릴 수 있는 이동 수행 (합법성 검사 등 시뮬레이션용)
+    //캐슬링, 앙파상을 함께 처리하며 프로모션 기물 정보가 없는 Move 는 프로모션하지 않음
+    //반환된 기록은 unmakeMove 에 역순으로 넘겨야 함
+    public UndoInfo makeMove(Move move){
+        return makeMove(PackedMove.of(move));
+    }
 
-        for(int y = 0; y < BOARD_SIZE; y++){
-            for(int x = 0; x < BOARD_SIZE; x++){
-                Piece p = this.grid[y][x];
-                if(p != null){
-                    newBoard.grid[y][x] = createPieceCopy(p);
-                }
+    //PackedMove 로 인코딩된 이동 수행 (프로모션 포함)
+    public UndoInfo makeMove(int move){
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        Piece piece = squares[from];
+        if(piece == null){
+            throw new IllegalArgumentException("이동할 기물이 없습니다: " + PackedMove.toString(move));
+        }
+
+        UndoInfo undo = pushUndo();
+        undo.move = move;
+        undo.movedPiece = piece;
+        undo.movedPieceHadMoved = piece.hasMoved();
+        undo.previousLastMove = lastMove;
+        undo.previousZobristKey = zobristKey;
+        undo.previousCastlingRights = castlingRights;
+        undo.previousEnPassantFile = enPassantFile;
+        undo.previousHalfmoveClock = halfmoveClock;
+        undo.previousFullmoveNumber = fullmoveNumber;
+
+        int dx = (to % BOARD_SIZE) - (from % BOARD_SIZE);
+        //앙파상: 폰이 대각선으로 빈 칸에 이동하면 옆 칸의 폰을 잡음
+        if(piece instanceof Pawn && dx != 0 && squares[to] == null){
+            undo.capturedSquare = (from / BOARD_SIZE) * BOARD_SIZE + (to % BOARD_SIZE);
+        }
+        else{
+            undo.capturedSquare = to;
+        }
+        Piece captured = squares[undo.capturedSquare];
+        if(captured != null){
+            undo.capturedListIndex = pieceLists[captured.getColor().ordinal()].indexOf(captured);
+            undo.capturedPiece = removePieceAt(undo.capturedSquare);
+        }
+
+        relocatePiece(from, to);
+        piece.setPosition(Position.ofIndex(to));
+        piece.setHasMoved(true);
+
+        //프로모션: 폰을 같은 목록 자리에 새 기물로 교체
+        PieceType promotion = PackedMove.promotion(move);
+        if(promotion != null && piece instanceof Pawn){
+            Piece promoted = createPiece(promotion, piece.getColor(), Position.ofIndex(to));
+            promoted.setHasMoved(true);
+            replacePieceAt(to, promoted);
+            undo.promotedPiece = promoted;
+        }
+
+        //캐슬링: 킹이 두 칸 움직이면 룩도 이동
+        if(piece instanceof King && Math.abs(dx) == 2){
+            int rankStart = (from / BOARD_SIZE) * BOARD_SIZE;
+            undo.rookFrom = rankStart + ((dx > 0) ? 7 : 0);
+            undo.rookTo = rankStart + ((dx > 0) ? 5 : 3);
+            Piece rook = squares[undo.rookFrom];
+            if(rook != null){
+                undo.rook = rook;
+                undo.rookHadMoved = rook.hasMoved();
+                relocatePiece(undo.rookFrom, undo.rookTo);
+                rook.setPosition(Position.ofIndex(undo.rookTo));
+                rook.setHasMoved(true);
             }
         }
-        newBoard.lastMove = this.lastMove;
-        return newBoard;
+
+        this.lastMove = move;
+        advanceClocks(piece instanceof Pawn || undo.capturedPiece != null);
+        switchSideToMove();
+        refreshStateKeys();
+        return undo;
     }
 
-    // Piece 객체를 깊은 복사
-    private Piece createPieceCopy(Piece p){
-        Piece newPiece;
+    //makeMove 로 둔 수를 되돌림 (가장 최근 기록부터 순서대로)
+    public void unmakeMove(UndoInfo undo){
+        if(undoCount == 0 || undoStack[undoCount - 1] != undo){
+            throw new IllegalStateException("가장 최근의 이동부터 되돌려야 합니다");
+        }
+        undoCount--;
+
+        if(undo.rook != null){
+            relocatePiece(undo.rookTo, undo.rookFrom);
+            undo.rook.setPosition(Position.ofIndex(undo.rookFrom));
+            undo.rook.setHasMoved(undo.rookHadMoved);
+        }
+
+        int from = PackedMove.from(undo.move);
+        int to = PackedMove.to(undo.move);
+        Piece piece = undo.movedPiece;
+        if(undo.promotedPiece != null){
+            replacePieceAt(to, piece);
+        }
+        relocatePiece(to, from);
+        piece.setPosition(Position.ofIndex(from));
+        piece.setHasMoved(undo.movedPieceHadMoved);
+
+        if(undo.capturedPiece != null){
+            putPieceAt(undo.capturedSquare, undo.capturedPiece, undo.capturedListIndex);
+        }
+
+        this.lastMove = undo.previousLastMove;
+        this.sideToMove = opposite(sideToMove);
+        //기물 이동으로 바뀐 키 대신 저장해 둔 값으로 그대로 복원
+        this.zobristKey = undo.previousZobristKey;
+        this.castlingRights = undo.previousCastlingRights;
+        this.enPassantFile = undo.previousEnPassantFile;
+        this.halfmoveClock = undo.previousHalfmoveClock;
+        this.fullmoveNumber = undo.previousFullmoveNumber;
+        undo.clear();
+    }
+
+    //가장 최근에 둔 수를 되돌림 (되돌릴 수가 없으면 false)
+    //UndoInfo 를 따로 들고 있지 않은 쪽(게임 기록의 무르기 등)에서 사용
+    public boolean unmakeLastMove(){
+        if(undoCount == 0){
+            return false;
+        }
+        unmakeMove(undoStack[undoCount - 1]);
+        return true;
+    }
+
+    //makeMove 로 쌓여 되돌릴 수 있는 수의 개수
+    public int getUndoDepth(){
+        return undoCount;
+    }
+
+    //makeMove 로 지나온 국면들의 Zobrist 키 (오래된 것부터, 현재 국면은 빠짐)
+    //copy() 는 되돌리기 기록을 옮기지 않으므로 복사본으로 탐색할 때는 원본에서 받아 넘김
+    long[] getPositionHistory(){
+        long[] keys = new long[undoCount];
+        for(int i = 0; i < undoCount; i++){
+            keys[i] = undoStack[i].previousZobristKey;
+        }
+        return keys;
+    }
+
+    //칸의 기물을 다른 기물로 교체 (기물 목록에서 같은 자리를 유지)
+    private void replacePieceAt(int square, Piece piece){
+        Piece old = squares[square];
+        int listIndex = pieceLists[old.getColor().ordinal()].indexOf(old);
+        removePieceAt(square);
+        putPieceAt(square, piece, listIndex);
+    }
+
+    //현재 국면의 Zobrist 키 (기물 배치, 차례, 캐슬링 권리, 앙파상 열 포함)
+    public long getZobristKey(){
+        return zobristKey;
+    }
+
+    //이번에 둘 차례인 색상
+    public Color getSideToMove(){
+        return sideToMove;
+    }
+
+    //캐슬링 권리 비트 (WHITE_KINGSIDE 등의 조합)
+    public int getCastlingRights(){
+        return castlingRights;
+    }
+
+    //직전 수가 폰 두 칸 전진이면 그 열, 아니면 -1
+    public int getEnPassantFile(){
+        return enPassantFile;
+    }
+
+    //둘 차례 지정 (FEN 등에서 국면을 직접 구성할 때 사용)
+    void setSideToMove(Color color){
+        if(color != sideToMove){
+            switchSideToMove();
+        }
+    }
+
+    //직전 수 지정 (FEN 의 앙파상 칸을 폰 두 칸 전진으로 나타낼 때 사용)
+    void setLastMove(int move){
+        this.lastMove = move;
+        refreshStateKeys();
+    }
+
+    //반수 카운터 (폰 이동이나 잡기 이후 둔 반수)
+    public int getHalfmoveClock(){
+        return halfmoveClock;
+    }
+
+    //전체 수 번호 (흑이 둘 때마다 1 증가)
+    public int getFullmoveNumber(){
+        return fullmoveNumber;
+    }
+
+    //FEN 의 시계 필드 지정
+    void setClocks(int halfmoveClock, int fullmoveNumber){
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    //한 수를 둔 뒤 시계 갱신 (차례를 넘기기 전에 호출)
+    private void advanceClocks(boolean resetHalfmove){
+        halfmoveClock = resetHalfmove ? 0 : halfmoveClock + 1;
+        if(sideToMove == Color.BLACK){
+            fullmoveNumber++;
+        }
+    }
+
+    private void switchSideToMove(){
+        sideToMove = opposite(sideToMove);
+        zobristKey ^= Zobrist.blackToMove();
+    }
+
+    private static Color opposite(Color color){
+        return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    }
+
+    //hasMoved, lastMove 로부터 캐슬링 권리와 앙파상 열을 다시 구하고 바뀐 부분만 키에 반영
+    private void refreshStateKeys(){
+        int rights = computeCastlingRights();
+        if(rights != castlingRights){
+            zobristKey ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+            castlingRights = rights;
+        }
+        int file = computeEnPassantFile();
+        if(file != enPassantFile){
+            zobristKey ^= Zobrist.enPassant(enPassantFile) ^ Zobrist.enPassant(file);
+            enPassantFile = file;
+        }
+    }
 
-        if(p instanceof Pawn){
-            newPiece = new Pawn(p.getColor(), p.getPosition());
+    //킹과 룩이 제자리에서 한 번도 움직이지 않았으면 그쪽 캐슬링 권리가 있음
+    private int computeCastlingRights(){
+        int rights = 0;
+        if(isUnmoved(7 * BOARD_SIZE + 4, Color.WHITE, PieceType.KING)){
+            if(isUnmoved(7 * BOARD_SIZE + 7, Color.WHITE, PieceType.ROOK)) rights |= WHITE_KINGSIDE;
+            if(isUnmoved(7 * BOARD_SIZE, Color.WHITE, PieceType.ROOK)) rights |= WHITE_QUEENSIDE;
         }
-        else if(p instanceof Rook){
-            newPiece = new Rook(p.getColor(), p.getPosition());
+        if(isUnmoved(4, Color.BLACK, PieceType.KING)){
+            if(isUnmoved(7, Color.BLACK, PieceType.ROOK)) rights |= BLACK_KINGSIDE;
+            if(isUnmoved(0, Color.BLACK, PieceType.ROOK)) rights |= BLACK_QUEENSIDE;
         }
-        else if(p instanceof Knight){
-            newPiece = new Knight(p.getColor(), p.getPosition());
+        return rights;
+    }
+
+    private boolean isUnmoved(int square, Color color, PieceType type){
+        Piece piece = squares[square];
+        return piece != null && piece.getColor() == color && piece.getType() == type && !piece.hasMoved();
+    }
+
+    //직전 수가 폰의 두 칸 전진이었으면 그 열
+    private int computeEnPassantFile(){
+        if(lastMove == PackedMove.NONE){
+            return -1;
         }
-        else if(p instanceof Bishop){
-            newPiece = new Bishop(p.getColor(), p.getPosition());
+        int from = PackedMove.from(lastMove);
+        int to = PackedMove.to(lastMove);
+        if(!(squares[to] instanceof Pawn) || Math.abs(to / BOARD_SIZE - from / BOARD_SIZE) != 2){
+            return -1;
         }
-        else if(p instanceof Queen){
-            newPiece = new Queen(p.getColor(), p.getPosition());
+        return to % BOARD_SIZE;
+    }
+
+    //키를 처음부터 다시 계산 (증분 갱신 검증용)
+    long computeZobristKey(){
+        long key = 0L;
+        for(int square = 0; square < SQUARE_COUNT; square++){
+            Piece piece = squares[square];
+            if(piece != null){
+                key ^= Zobrist.piece(piece.getColor(), piece.getType(), square);
+            }
         }
-        else if(p instanceof King){
-            newPiece = new King(p.getColor(), p.getPosition());
+        if(sideToMove == Color.BLACK){
+            key ^= Zobrist.blackToMove();
         }
-        else return null;
+        key ^= Zobrist.castling(computeCastlingRights());
+        key ^= Zobrist.enPassant(computeEnPassantFile());
+        return key;
+    }
 
+    //재사용할 되돌리기 기록을 스택에서 꺼냄
+    private UndoInfo pushUndo(){
+        if(undoCount == undoStack.length){
+            UndoInfo[] bigger = new UndoInfo[undoStack.length * 2];
+            System.arraycopy(undoStack, 0, bigger, 0, undoCount);
+            undoStack = bigger;
+        }
+        UndoInfo undo = undoStack[undoCount];
+        if(undo == null){
+            undo = new UndoInfo();
+            undoStack[undoCount] = undo;
+        }
+        else{
+            undo.clear();
+        }
+        undoCount++;
+        return undo;
+    }
+
+    public Board copy(){
+        Board newBoard = new Board(true);
+
+        //기물 목록 순서를 그대로 유지하도록 목록 순서대로 복사
+        for(int c = 0; c < 2; c++){
+            List<Piece> pieces = this.pieceLists[c];
+            for(int i = 0; i < pieces.size(); i++){
+                Piece p = pieces.get(i);
+                newBoard.place(createPieceCopy(p));
+            }
+        }
+        newBoard.lastMove = this.lastMove;
+        newBoard.halfmoveClock = this.halfmoveClock;
+        newBoard.fullmoveNumber = this.fullmoveNumber;
+        if(newBoard.sideToMove != this.sideToMove){
+            newBoard.switchSideToMove();
+        }
+        newBoard.refreshStateKeys();
+        return newBoard;
+    }
+
+    // Piece 객체를 깊은 복사
+    private Piece createPieceCopy(Piece p){
+        Piece newPiece = createPiece(p.getType(), p.getColor(), p.getPosition());
         // hasMoved 도 복사
         newPiece.setHasMoved(p.hasMoved());
         return newPiece;
     }
+
+    //기물 종류에 맞는 Piece 객체 생성
+    static Piece createPiece(PieceType type, Color color, Position pos){
+        switch (type){
+            case PAWN: return new Pawn(color, pos);
+            case KNIGHT: return new Knight(color, pos);
+            case BISHOP: return new Bishop(color, pos);
+            case ROOK: return new Rook(color, pos);
+            case QUEEN: return new Queen(color, pos);
+            case KING: return new King(color, pos);
+            default: throw new IllegalArgumentException("알 수 없는 기물: " + type);
+        }
+    }
 }
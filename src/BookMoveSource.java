@@ -0,0 +1,42 @@
+import java.util.Random;
+
+//오프닝 북에 있는 국면이면 북에서 수를 고르고, 없으면 감싼 MoveSource 에 맡기는 MoveSource
+//북은 매핑된 파일을 읽기만 하므로 여러 대국이 하나를 같이 써도 됨
+final class BookMoveSource implements MoveSource {
+    private final OpeningBook book;
+    private final MoveSource fallback;
+    private final Random random;
+
+    //북에서 고른 수의 개수 (출력용)
+    private int bookMoves;
+
+    BookMoveSource(OpeningBook book, MoveSource fallback, long seed){
+        this.book = book;
+        this.fallback = fallback;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int chooseMove(Board board, MoveList legalMoves){
+        int move = book.choose(board, legalMoves, random);
+        if(move != PackedMove.NONE){
+            bookMoves++;
+            return move;
+        }
+        return fallback.chooseMove(board, legalMoves);
+    }
+
+    @Override
+    public String getName(){
+        return fallback.getName() + "+book";
+    }
+
+    @Override
+    public boolean isInteractive(){
+        return fallback.isInteractive();
+    }
+
+    int getBookMoves(){
+        return bookMoves;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+//대국 하나를 수마다 1바이트로 저장하는 이진 기록 형식
+//  0..31  시작 국면 (CompactPosition)
+//  32..33 수 개수 (빅 엔디언)
+//  34     결과 (0 = *, 1 = 1-0, 2 = 0-1, 3 = 1/2-1/2)
+//  35..   수마다 1바이트: 그 국면의 합법 수 중 몇 번째인지
+//합법 수의 순서는 수 생성 순서가 아니라 (출발, 도착, 프로모션) 값의 오름차순이므로
+//MoveGenerator 의 생성 순서가 바뀌어도 기존 기록을 그대로 읽을 수 있음 (한 국면의 합법 수는 최대 218개)
+//1바이트 번호로 나타낼 수 없는, 합법 수가 256개를 넘는 국면은 IllegalArgumentException 으로 거부함
+final class CompactGame {
+    static final int HEADER_SIZE = CompactPosition.SIZE + 3;
+    private static final String[] RESULTS = {"*", GameRecord.WHITE_WINS, GameRecord.BLACK_WINS, GameRecord.DRAW};
+    //PackedMove 에서 출발, 도착, 프로모션이 들어 있는 하위 비트
+    private static final int KEY_MASK = PackedMove.CAPTURE - 1;
+    //수 번호 1바이트로 나타낼 수 있는 합법 수 개수
+    static final int MAX_MOVES_PER_PLY = 256;
+
+    final String startFen;
+    final int[] moves;
+    final String result;
+
+    CompactGame(String startFen, int[] moves, String result){
+        this.startFen = startFen;
+        this.moves = moves;
+        this.result = result;
+    }
+
+    int getPlyCount(){
+        return moves.length;
+    }
+
+    //기록된 바이트 수
+    static int encodedSize(int plies){
+        return HEADER_SIZE + plies;
+    }
+
+    //시작 국면에서 moves 를 차례로 두며 기록 (start 는 바꾸지 않음)
+    static byte[] encode(Board start, int[] moves, String result){
+        if(moves.length > 0xFFFF){
+            throw new IllegalArgumentException("수가 너무 많습니다: " + moves.length);
+        }
+        byte[] out = new byte[encodedSize(moves.length)];
+        CompactPosition.encode(start, out, 0);
+        out[CompactPosition.SIZE] = (byte) (moves.length >>> 8);
+        out[CompactPosition.SIZE + 1] = (byte) moves.length;
+        out[CompactPosition.SIZE + 2] = (byte) resultCode(result);
+
+        Board board = start.copy();
+        MoveGenerator generator = new MoveGenerator(board);
+        MoveList legalMoves = new MoveList();
+        int[] keys = new int[MAX_MOVES_PER_PLY];
+        for(int i = 0; i < moves.length; i++){
+            int count = sortedKeys(generator, legalMoves, keys);
+            int index = Arrays.binarySearch(keys, 0, count, moves[i] & KEY_MASK);
+            if(index < 0){
+                throw new IllegalArgumentException((i + 1) + "번째 수가 합법이 아닙니다: " + PackedMove.toUci(moves[i]));
+            }
+            out[HEADER_SIZE + i] = (byte) index;
+            board.makeMove(moves[i]);
+        }
+        return out;
+    }
+
+    //in[offset..) 의 기록을 읽음
+    static CompactGame decode(byte[] in, int offset){
+        Board board = CompactPosition.decode(in, offset);
+        String startFen = Fen.toFen(board);
+        int plies = ((in[offset + CompactPosition.SIZE] & 0xFF) << 8) | (in[offset + CompactPosition.SIZE + 1] & 0xFF);
+        int code = in[offset + CompactPosition.SIZE + 2] & 0xFF;
+        String result = (code < RESULTS.length) ? RESULTS[code] : "*";
+
+        MoveGenerator generator = new MoveGenerator(board);
+        MoveList legalMoves = new MoveList();
+        int[] keys = new int[MAX_MOVES_PER_PLY];
+        int[] moves = new int[plies];
+        for(int i = 0; i < plies; i++){
+            int count = sortedKeys(generator, legalMoves, keys);
+            int index = in[offset + HEADER_SIZE + i] & 0xFF;
+            if(index >= count){
+                throw new IllegalArgumentException((i + 1) + "번째 수의 번호가 범위를 벗어났습니다: " + index);
+            }
+            int move = findByKey(legalMoves, keys[index]);
+            moves[i] = move;
+            board.makeMove(move);
+        }
+        return new CompactGame(startFen, moves, result);
+    }
+
+    //현재 국면의 합법 수를 생성하고 keys 에 정렬된 키를 채워 개수를 반환
+    private static int sortedKeys(MoveGenerator generator, MoveList legalMoves, int[] keys){
+        legalMoves.clear();
+        generator.generateLegalMoves(legalMoves);
+        int count = legalMoves.size();
+        if(count > MAX_MOVES_PER_PLY){
+            throw new IllegalArgumentException("합법 수가 " + MAX_MOVES_PER_PLY + "개를 넘는 국면은 기록할 수 없습니다: "
+                    + count + "개 (" + Fen.toFen(generator.getBoard()) + ")");
+        }
+        for(int i = 0; i < count; i++){
+            keys[i] = legalMoves.get(i) & KEY_MASK;
+        }
+        Arrays.sort(keys, 0, count);
+        return count;
+    }
+
+    private static int findByKey(MoveList legalMoves, int key){
+        for(int i = 0; i < legalMoves.size(); i++){
+            if((legalMoves.get(i) & KEY_MASK) == key){
+                return legalMoves.get(i);
+            }
+        }
+        throw new IllegalStateException("키에 해당하는 수가 없습니다: " + key);
+    }
+
+    private static int resultCode(String result){
+        for(int i = 1; i < RESULTS.length; i++){
+            if(RESULTS[i].equals(result)){
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,104 @@
+//Board 를 32바이트로 저장하는 이진 국면 형식
+//  0..7   점유 비트보드 (칸 번호 순, 빅 엔디언 long)
+//  8..23  점유된 칸마다 4비트 기물 코드 (칸 번호 순, 한 바이트의 상위 4비트가 앞 칸), 최대 32개
+//         코드 = 색(흑이면 8) | PieceType 순서
+//  24     bit 0 둘 차례(1 이면 흑), bit 1..4 캐슬링 권리 (Board.WHITE_KINGSIDE 등)
+//  25     앙파상 파일 + 1 (없으면 0)
+//  26     반수 카운터 (255 에서 멈춤)
+//  27..28 전체 수 번호 (65535 에서 멈춤)
+//  29..31 0 (예비)
+//hasMoved 는 저장하지 않고 FEN 과 같은 규칙(캐슬링 권리와 폰 시작 줄)으로 복원함
+final class CompactPosition {
+    static final int SIZE = 32;
+    //한 국면에 놓일 수 있는 최대 기물 수 (기물 코드 영역 16바이트)
+    static final int MAX_PIECES = 32;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private CompactPosition(){
+    }
+
+    //board 를 out[offset..offset+32) 에 기록
+    static void encode(Board board, byte[] out, int offset){
+        long occupied = board.getOccupancy();
+        if(Long.bitCount(occupied) > MAX_PIECES){
+            throw new IllegalArgumentException("기물이 32개를 넘는 국면은 저장할 수 없습니다");
+        }
+        for(int i = 0; i < SIZE; i++){
+            out[offset + i] = 0;
+        }
+        for(int i = 0; i < 8; i++){
+            out[offset + i] = (byte) (occupied >>> (56 - 8 * i));
+        }
+        int nibble = 0;
+        long pieces = occupied;
+        while(pieces != 0){
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            Piece piece = board.getPieceAt(square);
+            int code = ((piece.getColor() == Color.BLACK) ? 8 : 0) | piece.getType().ordinal();
+            int index = offset + 8 + (nibble >> 1);
+            out[index] |= (byte) (((nibble & 1) == 0) ? code << 4 : code);
+            nibble++;
+        }
+        int flags = (board.getSideToMove() == Color.BLACK) ? 1 : 0;
+        flags |= board.getCastlingRights() << 1;
+        out[offset + 24] = (byte) flags;
+        out[offset + 25] = (byte) (board.getEnPassantFile() + 1);
+        out[offset + 26] = (byte) Math.min(board.getHalfmoveClock(), 255);
+        int fullmove = Math.min(board.getFullmoveNumber(), 65535);
+        out[offset + 27] = (byte) (fullmove >>> 8);
+        out[offset + 28] = (byte) fullmove;
+    }
+
+    static byte[] encode(Board board){
+        byte[] out = new byte[SIZE];
+        encode(board, out, 0);
+        return out;
+    }
+
+    //in[offset..offset+32) 에서 Board 복원
+    static Board decode(byte[] in, int offset){
+        long occupied = 0;
+        for(int i = 0; i < 8; i++){
+            occupied = (occupied << 8) | (in[offset + i] & 0xFF);
+        }
+        int flags = in[offset + 24] & 0xFF;
+        Color side = ((flags & 1) != 0) ? Color.BLACK : Color.WHITE;
+        int rights = (flags >>> 1) & 0xF;
+
+        Board board = Board.empty();
+        int nibble = 0;
+        while(occupied != 0){
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int packed = in[offset + 8 + (nibble >> 1)] & 0xFF;
+            int code = ((nibble & 1) == 0) ? packed >>> 4 : packed & 0xF;
+            nibble++;
+            if((code & 7) >= TYPES.length){
+                throw new IllegalArgumentException("잘못된 기물 코드: " + code);
+            }
+            Color color = ((code & 8) != 0) ? Color.BLACK : Color.WHITE;
+            PieceType type = TYPES[code & 7];
+            int y = square / Board.BOARD_SIZE;
+            int x = square % Board.BOARD_SIZE;
+            Position pos = Position.of(y, x);
+            Piece piece = Board.createPiece(type, color, pos);
+            piece.setHasMoved(Fen.hasMoved(type, color, y, x, rights));
+            board.setPieceAt(pos, piece);
+        }
+
+        board.setSideToMove(side);
+        int enPassantFile = (in[offset + 25] & 0xFF) - 1;
+        if(enPassantFile >= 0){
+            board.setLastMove(Fen.enPassantLastMove(enPassantFile, side));
+        }
+        int fullmove = ((in[offset + 27] & 0xFF) << 8) | (in[offset + 28] & 0xFF);
+        board.setClocks(in[offset + 26] & 0xFF, Math.max(fullmove, 1));
+        return board;
+    }
+
+    static Board decode(byte[] in){
+        return decode(in, 0);
+    }
+}
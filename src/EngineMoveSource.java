@@ -0,0 +1,76 @@
+import java.util.Locale;
+
+//탐색 엔진으로 수를 고르는 MoveSource
+//치환표를 대국 내내 재사용하므로 대국 하나에서만 사용해야 함
+final class EngineMoveSource implements MoveSource {
+    private final long thinkMillis;
+    private final int maxDepth;
+    private final int threads;
+    private final TranspositionTable table;
+    //엔드게임 테이블 (없으면 null)
+    private Tablebases tablebases;
+
+    //마지막 탐색 결과 (출력용)
+    private int lastDepth;
+    private int lastScore;
+    private long lastNodes;
+
+    EngineMoveSource(long thinkMillis, int maxDepth, int threads, int hashMegabytes){
+        this(thinkMillis, maxDepth, threads, hashMegabytes, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    EngineMoveSource(long thinkMillis, int maxDepth, int threads, int hashMegabytes, TranspositionTable.ReplacementPolicy policy){
+        this.thinkMillis = thinkMillis;
+        this.maxDepth = maxDepth;
+        this.threads = threads;
+        this.table = new TranspositionTable(hashMegabytes, policy);
+    }
+
+    //탐색이 엔드게임 테이블에 있는 국면은 테이블 값으로 끝내게 함 (여러 대국이 같이 써도 됨)
+    void setTablebases(Tablebases tablebases){
+        this.tablebases = tablebases;
+    }
+
+    @Override
+    public int chooseMove(Board board, MoveList legalMoves){
+        //탐색은 보드를 두었다 되돌리므로 스레드마다 복사본에서 실행
+        ParallelSearch search = new ParallelSearch(board, threads, table);
+        search.setTablebases(tablebases);
+        int move = search.search(thinkMillis, maxDepth);
+        lastDepth = search.getCompletedDepth();
+        lastScore = search.getBestScore();
+        lastNodes = search.getNodes();
+        //시간이 거의 없어 탐색이 수를 못 고른 경우에도 둘 수는 있어야 함
+        if(move == PackedMove.NONE || !legalMoves.contains(move)){
+            return legalMoves.get(0);
+        }
+        return move;
+    }
+
+    @Override
+    public String getName(){
+        //SelfPlay 설정과 같은 표기 (기본 교체 정책이 아니면 정책까지 붙임)
+        if(table.getPolicy() != TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED){
+            return "engine:" + thinkMillis + ":" + maxDepth + ":" + table.getPolicy().name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+        return (maxDepth < Search.MAX_DEPTH)
+                ? "engine:" + thinkMillis + ":" + maxDepth
+                : "engine:" + thinkMillis;
+    }
+
+    TranspositionTable getTable(){
+        return table;
+    }
+
+    int getLastDepth(){
+        return lastDepth;
+    }
+
+    int getLastScore(){
+        return lastScore;
+    }
+
+    long getLastNodes(){
+        return lastNodes;
+    }
+}
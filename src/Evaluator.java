@@ -0,0 +1,131 @@
+//탐색용 정적 국면 평가 (기물 가치 + 기물별 위치 점수 + 기동성)
+//모든 말단 노드에서 불리므로 기물 목록이나 Move 를 만들지 않고 비트보드만 사용
+//점수는 센티폰 단위이며 둘 차례인 쪽 기준 (양수면 둘 차례가 유리)
+final class Evaluator {
+    //PieceType 순서의 기물 가치
+    static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    //위치 점수표: 백 기준, 배열 첫 줄이 8랭크(y = 0). 흑은 위아래를 뒤집어 사용
+    private static final int[] PAWN_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+             5,  5, 10, 25, 25, 10,  5,  5,
+             0,  0,  0, 20, 20,  0,  0,  0,
+             5, -5,-10,  0,  0,-10, -5,  5,
+             5, 10, 10,-20,-20, 10, 10,  5,
+             0,  0,  0,  0,  0,  0,  0,  0
+    };
+    private static final int[] KNIGHT_TABLE = {
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50
+    };
+    private static final int[] BISHOP_TABLE = {
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10, 10, 10, 10, 10, 10, 10,-10,
+            -10,  5,  0,  0,  0,  0,  5,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20
+    };
+    private static final int[] ROOK_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+             5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+             0,  0,  0,  5,  5,  0,  0,  0
+    };
+    private static final int[] QUEEN_TABLE = {
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+             -5,  0,  5,  5,  5,  5,  0, -5,
+              0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20
+    };
+    private static final int[] KING_TABLE = {
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+             20, 20,  0,  0,  0,  0, 20, 20,
+             20, 30, 10,  0,  0, 10, 30, 20
+    };
+    private static final int[][] TABLES = {
+            PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_TABLE
+    };
+    private static final PieceType[] TYPES = PieceType.values();
+
+    //기동성 칸 하나당 점수 (PieceType 순서, 폰과 킹은 세지 않음)
+    private static final int[] MOBILITY_WEIGHTS = {0, 4, 5, 2, 1, 0};
+
+    //둘 차례 기준 평가 점수
+    int evaluate(Board board){
+        int score = evaluateColor(board, Color.WHITE) - evaluateColor(board, Color.BLACK);
+        return (board.getSideToMove() == Color.WHITE) ? score : -score;
+    }
+
+    //한 색상의 기물 가치와 위치 점수 합
+    private int evaluateColor(Board board, Color color){
+        int score = 0;
+        for(int t = 0; t < TYPES.length; t++){
+            long pieces = board.getPieceBitboard(color, TYPES[t]);
+            int[] table = TABLES[t];
+            while(pieces != 0){
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                //흑은 위아래를 뒤집은 칸 번호로 표를 읽음
+                int tableSquare = (color == Color.WHITE) ? square : square ^ 56;
+                score += PIECE_VALUES[t] + table[tableSquare];
+            }
+        }
+        return score + mobility(board, color);
+    }
+
+    //나이트, 비숍, 룩, 퀸이 갈 수 있는 칸 수의 가중합
+    //아군 칸과 상대 폰이 지키는 칸은 실제로 쓰기 어려우므로 세지 않음
+    int mobility(Board board, Color color){
+        Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        long safe = ~board.getColorOccupancy(color)
+                & ~Attacks.pawns(opponent, board.getPieceBitboard(opponent, PieceType.PAWN));
+        long occupied = board.getOccupancy();
+
+        int score = 0;
+        long knights = board.getPieceBitboard(color, PieceType.KNIGHT);
+        while(knights != 0){
+            score += MOBILITY_WEIGHTS[1] * Long.bitCount(Attacks.knight(Long.numberOfTrailingZeros(knights)) & safe);
+            knights &= knights - 1;
+        }
+        long bishops = board.getPieceBitboard(color, PieceType.BISHOP);
+        while(bishops != 0){
+            score += MOBILITY_WEIGHTS[2] * Long.bitCount(Attacks.bishop(Long.numberOfTrailingZeros(bishops), occupied) & safe);
+            bishops &= bishops - 1;
+        }
+        long rooks = board.getPieceBitboard(color, PieceType.ROOK);
+        while(rooks != 0){
+            score += MOBILITY_WEIGHTS[3] * Long.bitCount(Attacks.rook(Long.numberOfTrailingZeros(rooks), occupied) & safe);
+            rooks &= rooks - 1;
+        }
+        long queens = board.getPieceBitboard(color, PieceType.QUEEN);
+        while(queens != 0){
+            score += MOBILITY_WEIGHTS[4] * Long.bitCount(Attacks.queen(Long.numberOfTrailingZeros(queens), occupied) & safe);
+            queens &= queens - 1;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,207 @@
+//FEN 문자열과 Board 사이의 변환
+//좌표: FEN 의 8번 랭크가 y = 0, a 파일이 x = 0
+final class Fen {
+    static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen(){
+    }
+
+    //FEN 을 읽어 Board 생성
+    //캐슬링 권리는 킹/룩의 hasMoved 로, 앙파상 칸은 직전 폰 두 칸 전진(lastMove)으로 변환
+    //시계 필드는 생략 가능 (반수 0, 전체 수 1)
+    static Board parse(String fen){
+        String[] fields = fen.trim().split("\\s+");
+        if(fields.length < 2){
+            throw new IllegalArgumentException("FEN 필드가 부족합니다: " + fen);
+        }
+        String placement = fields[0];
+        Color side = parseSide(fields[1]);
+        String castling = (fields.length > 2) ? fields[2] : "-";
+        String enPassant = (fields.length > 3) ? fields[3] : "-";
+        int halfmoveClock = (fields.length > 4) ? parseClock(fields[4], 0) : 0;
+        int fullmoveNumber = (fields.length > 5) ? parseClock(fields[5], 1) : 1;
+
+        int rights = parseCastling(castling);
+        Board board = Board.empty();
+        String[] ranks = placement.split("/");
+        if(ranks.length != Board.BOARD_SIZE){
+            throw new IllegalArgumentException("랭크가 8개가 아닙니다: " + placement);
+        }
+        for(int y = 0; y < Board.BOARD_SIZE; y++){
+            int x = 0;
+            for(int i = 0; i < ranks[y].length(); i++){
+                char c = ranks[y].charAt(i);
+                if(Character.isDigit(c)){
+                    x += c - '0';
+                    continue;
+                }
+                if(x >= Board.BOARD_SIZE){
+                    throw new IllegalArgumentException("랭크가 너무 깁니다: " + ranks[y]);
+                }
+                Color color = Character.isUpperCase(c) ? Color.WHITE : Color.BLACK;
+                PieceType type = pieceType(c);
+                Position pos = Position.of(y, x);
+                Piece piece = Board.createPiece(type, color, pos);
+                piece.setHasMoved(hasMoved(type, color, y, x, rights));
+                board.setPieceAt(pos, piece);
+                x++;
+            }
+            if(x != Board.BOARD_SIZE){
+                throw new IllegalArgumentException("랭크 칸 수가 8이 아닙니다: " + ranks[y]);
+            }
+        }
+
+        board.setSideToMove(side);
+        if(!enPassant.equals("-")){
+            board.setLastMove(enPassantLastMove(enPassant, side));
+        }
+        board.setClocks(halfmoveClock, fullmoveNumber);
+        return board;
+    }
+
+    //Board 를 FEN 문자열로 변환
+    static String toFen(Board board){
+        StringBuilder sb = new StringBuilder(90);
+        for(int y = 0; y < Board.BOARD_SIZE; y++){
+            int empty = 0;
+            for(int x = 0; x < Board.BOARD_SIZE; x++){
+                Piece piece = board.getPieceAt(y * Board.BOARD_SIZE + x);
+                if(piece == null){
+                    empty++;
+                    continue;
+                }
+                if(empty > 0){
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(pieceChar(piece));
+            }
+            if(empty > 0){
+                sb.append(empty);
+            }
+            if(y < Board.BOARD_SIZE - 1){
+                sb.append('/');
+            }
+        }
+
+        sb.append(board.getSideToMove() == Color.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if(rights == 0){
+            sb.append('-');
+        }
+        else{
+            if((rights & Board.WHITE_KINGSIDE) != 0) sb.append('K');
+            if((rights & Board.WHITE_QUEENSIDE) != 0) sb.append('Q');
+            if((rights & Board.BLACK_KINGSIDE) != 0) sb.append('k');
+            if((rights & Board.BLACK_QUEENSIDE) != 0) sb.append('q');
+        }
+
+        int file = board.getEnPassantFile();
+        if(file < 0){
+            sb.append(" -");
+        }
+        else{
+            //백 차례면 흑 폰이 지나간 6랭크(y = 2), 흑 차례면 3랭크(y = 5)
+            int y = (board.getSideToMove() == Color.WHITE) ? 2 : 5;
+            sb.append(' ');
+            PackedMove.appendSquare(sb, y * Board.BOARD_SIZE + file);
+        }
+
+        sb.append(' ').append(board.getHalfmoveClock());
+        sb.append(' ').append(board.getFullmoveNumber());
+        return sb.toString();
+    }
+
+    //기물을 FEN 문자로 변환 (백은 대문자)
+    static char pieceChar(Piece piece){
+        char c = "pnbrqk".charAt(piece.getType().ordinal());
+        return (piece.getColor() == Color.WHITE) ? Character.toUpperCase(c) : c;
+    }
+
+    private static int parseClock(String field, int fallback){
+        if(field.equals("-")){
+            return fallback;
+        }
+        try{
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e){
+            throw new IllegalArgumentException("시계 필드가 잘못되었습니다: " + field, e);
+        }
+    }
+
+    private static Color parseSide(String field){
+        if(field.equals("w")){
+            return Color.WHITE;
+        }
+        if(field.equals("b")){
+            return Color.BLACK;
+        }
+        throw new IllegalArgumentException("차례 필드가 잘못되었습니다: " + field);
+    }
+
+    static PieceType pieceType(char c){
+        switch (Character.toLowerCase(c)){
+            case 'p': return PieceType.PAWN;
+            case 'n': return PieceType.KNIGHT;
+            case 'b': return PieceType.BISHOP;
+            case 'r': return PieceType.ROOK;
+            case 'q': return PieceType.QUEEN;
+            case 'k': return PieceType.KING;
+            default: throw new IllegalArgumentException("알 수 없는 기물 문자: " + c);
+        }
+    }
+
+    //캐슬링 필드(KQkq)를 Board 의 캐슬링 권리 비트로 변환
+    private static int parseCastling(String castling){
+        int rights = 0;
+        if(castling.indexOf('K') >= 0) rights |= Board.WHITE_KINGSIDE;
+        if(castling.indexOf('Q') >= 0) rights |= Board.WHITE_QUEENSIDE;
+        if(castling.indexOf('k') >= 0) rights |= Board.BLACK_KINGSIDE;
+        if(castling.indexOf('q') >= 0) rights |= Board.BLACK_QUEENSIDE;
+        return rights;
+    }
+
+    //FEN 에 없는 hasMoved 를 추정 (CompactPosition 도 같은 규칙으로 복원)
+    //폰은 시작 줄에 있을 때만, 킹과 룩은 해당 캐슬링 권리가 있을 때만 움직이지 않은 것으로 봄
+    static boolean hasMoved(PieceType type, Color color, int y, int x, int rights){
+        int homeY = (color == Color.WHITE) ? 7 : 0;
+        int kingside = (color == Color.WHITE) ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+        int queenside = (color == Color.WHITE) ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+        switch (type){
+            case PAWN:
+                return y != ((color == Color.WHITE) ? 6 : 1);
+            case KING:
+                return !(y == homeY && x == 4 && (rights & (kingside | queenside)) != 0);
+            case ROOK:
+                if(y == homeY && x == 7 && (rights & kingside) != 0) return false;
+                if(y == homeY && x == 0 && (rights & queenside) != 0) return false;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    //앙파상 칸(예: e3)을 상대 폰의 두 칸 전진 이동으로 변환
+    private static int enPassantLastMove(String square, Color sideToMove){
+        if(square.length() != 2){
+            throw new IllegalArgumentException("앙파상 칸이 잘못되었습니다: " + square);
+        }
+        int x = square.charAt(0) - 'a';
+        int y = Board.BOARD_SIZE - (square.charAt(1) - '0');
+        if(!Position.isWithinBoard(y, x)){
+            throw new IllegalArgumentException("앙파상 칸이 잘못되었습니다: " + square);
+        }
+        return enPassantLastMove(x, sideToMove);
+    }
+
+    //앙파상 파일을 상대 폰의 두 칸 전진 이동으로 변환
+    static int enPassantLastMove(int x, Color sideToMove){
+        int y = (sideToMove == Color.WHITE) ? 2 : 5;
+        //흑 차례면 백 폰이 y+1 에서 y-1 로, 백 차례면 흑 폰이 y-1 에서 y+1 로 이동한 것
+        int dir = (sideToMove == Color.BLACK) ? 1 : -1;
+        int from = (y + dir) * Board.BOARD_SIZE + x;
+        int to = (y - dir) * Board.BOARD_SIZE + x;
+        return PackedMove.of(from, to, PackedMove.DOUBLE_PUSH);
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//CompactGame 기록을 이어 붙인 파일과 리더
+//  0..3   "SWPG"
+//  4..7   형식 버전
+//  8..15  대국 수
+//  16..23 위치표 시작 위치
+//  24..   대국 기록들 (CompactGame, 길이는 기록 안의 수 개수로 정해짐)
+//  끝     위치표: 대국마다 기록 시작 위치 (long)
+//위치표만 메모리 매핑하고 기록은 위치 읽기로 가져오므로 파일 크기와 관계없이 번호로 바로 읽음
+final class GameArchive implements Closeable {
+    static final int MAGIC = 0x53575047;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    private final FileChannel channel;
+    private final LongBuffer offsets;
+    private final long size;
+
+    private GameArchive(FileChannel channel, LongBuffer offsets, long size){
+        this.channel = channel;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    static GameArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if(header.getInt() != MAGIC){
+                throw new IOException("대국 파일이 아닙니다: " + path);
+            }
+            int version = header.getInt();
+            if(version != VERSION){
+                throw new IOException("지원하지 않는 형식 버전: " + version);
+            }
+            long size = header.getLong();
+            long indexPosition = header.getLong();
+            if(indexPosition + size * 8 > channel.size()){
+                throw new IOException("파일이 잘렸습니다: " + path);
+            }
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexPosition, size * 8);
+            return new GameArchive(channel, index.asLongBuffer(), size);
+        } catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    long size(){
+        return size;
+    }
+
+    //index 번째 대국
+    CompactGame get(long index) throws IOException {
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("대국 번호가 범위를 벗어났습니다: " + index);
+        }
+        long position = offsets.get((int) index);
+        ByteBuffer header = ByteBuffer.allocate(CompactGame.HEADER_SIZE);
+        readFully(channel, header, position);
+        int plies = header.getShort(CompactPosition.SIZE) & 0xFFFF;
+        ByteBuffer record = ByteBuffer.allocate(CompactGame.encodedSize(plies));
+        readFully(channel, record, position);
+        return CompactGame.decode(record.array(), 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            int n = channel.read(buffer, position);
+            if(n < 0){
+                throw new IOException("파일이 너무 짧습니다");
+            }
+            position += n;
+        }
+    }
+
+    //대국을 차례로 덧붙여 쓰는 기록기 (닫을 때 위치표와 머리를 채움)
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long[] offsets = new long[1024];
+        private long count;
+        private long position;
+
+        Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(0).putLong(0);
+            position = HEADER_SIZE;
+        }
+
+        void add(Board start, int[] moves, String result) throws IOException {
+            byte[] record = CompactGame.encode(start, moves, result);
+            if(count == offsets.length){
+                long[] bigger = new long[offsets.length * 2];
+                System.arraycopy(offsets, 0, bigger, 0, offsets.length);
+                offsets = bigger;
+            }
+            offsets[(int) count++] = position;
+            write(record);
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            if(buffer.remaining() < bytes.length){
+                flush();
+            }
+            if(bytes.length > buffer.capacity()){
+                channel.write(ByteBuffer.wrap(bytes));
+            }
+            else{
+                buffer.put(bytes);
+            }
+            position += bytes.length;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try{
+                long indexPosition = position;
+                for(int i = 0; i < count; i++){
+                    if(buffer.remaining() < 8){
+                        flush();
+                    }
+                    buffer.putLong(offsets[i]);
+                }
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(16).putLong(count).putLong(indexPosition);
+                header.flip();
+                channel.write(header, 8);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
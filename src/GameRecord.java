@@ -0,0 +1,50 @@
+//끝난 대국 하나의 기록 (시작 국면, 수 목록, 결과)
+final class GameRecord {
+    //대국이 끝난 이유
+    enum Termination {
+        CHECKMATE,
+        STALEMATE,
+        FIFTY_MOVES,
+        REPETITION,
+        INSUFFICIENT_MATERIAL,
+        //수 제한에 걸려 무승부로 판정
+        MOVE_LIMIT,
+        //MoveSource 가 수를 내지 않음 (기권, 수순 끝, 연결 끊김)
+        RESIGNATION,
+        //MoveSource 가 합법이 아닌 수를 돌려주어 패배 처리
+        ILLEGAL_MOVE,
+        //엔드게임 테이블에 있는 국면이 되어 테이블의 결과로 판정
+        TABLEBASE
+    }
+
+    static final String WHITE_WINS = "1-0";
+    static final String BLACK_WINS = "0-1";
+    static final String DRAW = "1/2-1/2";
+
+    final String startFen;
+    final int[] moves;
+    final String white;
+    final String black;
+    final String result;
+    final Termination termination;
+    final long durationMillis;
+
+    GameRecord(String startFen, int[] moves, String white, String black,
+               String result, Termination termination, long durationMillis){
+        this.startFen = startFen;
+        this.moves = moves;
+        this.white = white;
+        this.black = black;
+        this.result = result;
+        this.termination = termination;
+        this.durationMillis = durationMillis;
+    }
+
+    int getPlyCount(){
+        return moves.length;
+    }
+
+    boolean isDraw(){
+        return result.equals(DRAW);
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//한 JVM 에서 여러 게임을 동시에 진행하는 줄 단위 TCP 서버 (명령은 GameSession 참고)
+//접속마다 가상 스레드 하나가 GameSession 을 맡음. 소켓 읽기에서 막히면 가상 스레드만 멈추고 캐리어 스레드는 풀려나므로
+//대부분 입력을 기다리는 세션 수만 개를 운영체제 스레드 몇 개로 처리할 수 있음
+//세션당 메모리를 줄이기 위해 Reader / Writer (각 8KB 버퍼) 대신 작은 바이트 버퍼로 직접 읽고 씀
+//사용법: java GameServer [--port N] [--bind 주소]
+//        java GameServer --measure N   (루프백으로 N 개 세션을 열고 세션당 메모리 측정)
+//        java GameServer --check       (루프백 접속으로 줄 프로토콜 확인, 실패하면 예외)
+//측정은 클라이언트와 서버 소켓을 한 프로세스에서 모두 열므로 N 의 2배 이상의 파일 디스크립터가 필요함 (ulimit -n)
+final class GameServer {
+    static final int DEFAULT_PORT = 5555;
+    //명령 한 줄의 최대 길이 (FEN 한 줄이 충분히 들어감)
+    static final int MAX_LINE_BYTES = 256;
+    //세션별 읽기 버퍼 크기 (명령은 짧으므로 작게 잡음)
+    private static final int READ_BUFFER_BYTES = 128;
+
+    private final ServerSocket serverSocket;
+    //열려 있는 접속 (종료할 때 모두 닫기 위함)
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger totalSessions = new AtomicInteger();
+    private volatile boolean running;
+
+    GameServer(InetSocketAddress address) throws IOException {
+        this.serverSocket = new ServerSocket();
+        //접속이 한꺼번에 몰려도 거절되지 않도록 대기열을 넉넉히 잡음
+        serverSocket.bind(address, 4096);
+    }
+
+    int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    int getActiveSessions(){
+        return activeSessions.get();
+    }
+
+    int getTotalSessions(){
+        return totalSessions.get();
+    }
+
+    //접속 대기 스레드를 시작 (즉시 반환)
+    void start(){
+        running = true;
+        Thread.ofVirtual().name("game-server-accept").start(this::acceptLoop);
+    }
+
+    //새 접속을 받지 않고 열린 접속을 모두 닫음
+    void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for(Socket socket : clients){
+            closeQuietly(socket);
+        }
+    }
+
+    private void acceptLoop(){
+        while(running){
+            Socket socket;
+            try{
+                socket = serverSocket.accept();
+            } catch (IOException e){
+                if(running){
+                    System.err.println("접속 수락 실패: " + e.getMessage());
+                    //파일 디스크립터가 바닥난 경우 바로 다시 시도하면 같은 오류만 반복되므로 잠시 쉼
+                    try{
+                        Thread.sleep(100);
+                    } catch (InterruptedException interrupted){
+                        return;
+                    }
+                }
+                continue;
+            }
+            clients.add(socket);
+            activeSessions.incrementAndGet();
+            totalSessions.incrementAndGet();
+            Thread.ofVirtual().start(() -> serve(socket));
+        }
+    }
+
+    //접속 하나를 끝날 때까지 처리
+    private void serve(Socket socket){
+        try{
+            socket.setTcpNoDelay(true);
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            LineReader reader = new LineReader(in);
+            GameSession session = new GameSession();
+            String line;
+            while(!session.isClosed() && (line = reader.readLine()) != null){
+                //TOO_LONG 도 빈 문자열이므로 빈 줄 검사보다 먼저 봐야 함 (응답을 빼먹으면 요청과 응답의 짝이 어긋남)
+                String response;
+                if(line == LineReader.TOO_LONG){
+                    response = tooLongError();
+                }
+                else if(line.isEmpty()){
+                    continue;
+                }
+                else{
+                    response = session.handle(line);
+                }
+                out.write((response + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (SocketException e){
+            //상대가 접속을 끊음
+        } catch (IOException e){
+            System.err.println("세션 입출력 오류: " + e.getMessage());
+        } finally {
+            clients.remove(socket);
+            activeSessions.decrementAndGet();
+            closeQuietly(socket);
+        }
+    }
+
+    static String tooLongError(){
+        return "error line longer than " + MAX_LINE_BYTES + " bytes";
+    }
+
+    private static void closeQuietly(Socket socket){
+        try{
+            socket.close();
+        } catch (IOException e){
+            //이미 닫힌 접속
+        }
+    }
+
+    //작은 버퍼로 한 줄씩 읽는 리더 (\n 또는 \r\n 으로 끝나는 UTF-8 줄)
+    static final class LineReader {
+        //너무 긴 줄을 읽었을 때 돌려주는 표식 (해당 줄은 끝까지 버림)
+        //빈 줄과 구분하도록 == 로 비교하므로 따로 만든 인스턴스를 씀
+        static final String TOO_LONG = new String("");
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[READ_BUFFER_BYTES];
+        private int position;
+        private int limit;
+        //줄 버퍼는 첫 줄을 읽을 때 만듦
+        private byte[] line;
+
+        LineReader(InputStream in){
+            this.in = in;
+        }
+
+        //다음 줄 (끝에 도달하면 null)
+        String readLine() throws IOException {
+            if(line == null){
+                line = new byte[MAX_LINE_BYTES];
+            }
+            int length = 0;
+            boolean overflow = false;
+            while(true){
+                if(position == limit){
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if(limit <= 0){
+                        limit = 0;
+                        //끝에서 잘린 긴 줄을 명령으로 처리하지 않음
+                        if(overflow){
+                            return TOO_LONG;
+                        }
+                        return (length > 0) ? decode(length) : null;
+                    }
+                }
+                byte b = buffer[position++];
+                if(b == '\n'){
+                    if(overflow){
+                        return TOO_LONG;
+                    }
+                    return decode(length);
+                }
+                if(length < line.length){
+                    line[length++] = b;
+                }
+                else{
+                    overflow = true;
+                }
+            }
+        }
+
+        private String decode(int length){
+            if(length > 0 && line[length - 1] == '\r'){
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    //루프백 접속 하나로 요청과 응답의 짝이 맞는지 확인 (너무 긴 줄, 빈 줄, 끝에서 잘린 긴 줄 포함)
+    static void check() throws IOException {
+        GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        try{
+            try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())){
+                //응답이 빠지면 영원히 기다리지 않고 실패하도록
+                socket.setSoTimeout(5000);
+                OutputStream out = socket.getOutputStream();
+                LineReader reader = new LineReader(socket.getInputStream());
+                expect(out, reader, "new\n", "ok " + Fen.START_POSITION);
+
+                StringBuilder longLine = new StringBuilder();
+                for(int i = 0; i < MAX_LINE_BYTES * 3; i++){
+                    longLine.append('x');
+                }
+                expect(out, reader, longLine + "\n", tooLongError());
+                //빈 줄은 응답이 없으므로 다음 명령의 응답이 바로 와야 함
+                expect(out, reader, "\n\r\nmove e2e4\n", "ok " + Fen.toFen(afterE4()) + " RUNNING");
+                //긴 줄 뒤에도 짝이 맞는지
+                expect(out, reader, longLine + "\r\nfen\n", tooLongError());
+                expectReply(reader, "ok " + Fen.toFen(afterE4()));
+
+                //줄 끝 없이 접속을 끊어도 잘린 줄을 명령으로 처리하지 않음
+                out.write(longLine.toString().getBytes(StandardCharsets.US_ASCII));
+                socket.shutdownOutput();
+                expectReply(reader, tooLongError());
+                expectReply(reader, null);
+            }
+            System.out.println("줄 프로토콜 확인 통과");
+        } finally {
+            server.close();
+        }
+    }
+
+    private static Board afterE4(){
+        return Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+    }
+
+    private static void expect(OutputStream out, LineReader reader, String request, String reply) throws IOException {
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        expectReply(reader, reply);
+    }
+
+    private static void expectReply(LineReader reader, String reply) throws IOException {
+        String actual = reader.readLine();
+        if(reply == null ? actual != null : !reply.equals(actual)){
+            throw new IllegalStateException("응답이 다릅니다: 기대 " + reply + ", 실제 " + actual);
+        }
+    }
+
+    //루프백으로 세션 N 개를 열어 게임을 시작시킨 뒤 세션당 힙 사용량을 측정
+    //클라이언트 소켓도 같은 JVM 에 있으므로, 소켓 없이 GameSession 만 만든 경우도 따로 측정해 게임 상태의 몫을 구분함
+    static void measure(int sessions) throws IOException, InterruptedException {
+        long baseline = usedHeap();
+
+        GameSession[] bare = new GameSession[sessions];
+        for(int i = 0; i < sessions; i++){
+            bare[i] = new GameSession();
+            bare[i].handle("new");
+        }
+        long sessionOnly = usedHeap() - baseline;
+        System.out.printf(Locale.ROOT, "게임 상태만: 세션 %d 개, 세션당 %.0f 바이트%n",
+                sessions, (double) sessionOnly / sessions);
+        bare = null;
+
+        baseline = usedHeap();
+        GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        Socket[] sockets = new Socket[sessions];
+        long start = System.nanoTime();
+        byte[] newGame = "new\n".getBytes(StandardCharsets.US_ASCII);
+        for(int i = 0; i < sessions; i++){
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            socket.getOutputStream().write(newGame);
+            String reply = new LineReader(socket.getInputStream()).readLine();
+            if(reply == null || !reply.startsWith("ok")){
+                throw new IllegalStateException("세션 시작 실패: " + reply);
+            }
+            sockets[i] = socket;
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        long withSockets = usedHeap() - baseline;
+        System.out.printf(Locale.ROOT, "접속 포함: 세션 %d 개 (활성 %d), 세션당 %.0f 바이트 (클라이언트 소켓 포함), 연결 %dms%n",
+                sessions, server.getActiveSessions(), (double) withSockets / sessions, elapsed);
+
+        //한 세션이 실제로 수를 주고받는지 확인
+        Socket probe = sockets[0];
+        LineReader probeReader = new LineReader(probe.getInputStream());
+        probe.getOutputStream().write("move e2e4\nlegal\n".getBytes(StandardCharsets.US_ASCII));
+        System.out.println("move e2e4 -> " + probeReader.readLine());
+        String legal = probeReader.readLine();
+        System.out.println("legal -> " + legal.split(" ").length + "개 항목");
+
+        for(int i = 0; i < sockets.length; i++){
+            sockets[i].close();
+        }
+        server.close();
+    }
+
+    //GC 를 돌린 뒤 사용 중인 힙
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++){
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT;
+        String bind = null;
+        int measureSessions = 0;
+        boolean check = false;
+        for(int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--check": check = true; break;
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--bind": bind = args[++i]; break;
+                case "--measure": measureSessions = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("알 수 없는 옵션: " + args[i]);
+            }
+        }
+
+        if(check){
+            check();
+            return;
+        }
+        if(measureSessions > 0){
+            measure(measureSessions);
+            return;
+        }
+
+        InetSocketAddress address = (bind == null)
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                : new InetSocketAddress(bind, port);
+        GameServer server = new GameServer(address);
+        server.start();
+        System.out.println("게임 서버 시작: " + address.getHostString() + ":" + server.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try{
+                server.close();
+            } catch (IOException e){
+                //종료 중
+            }
+        }));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.concurrent.Semaphore;
+
+//서버에서 접속 하나가 진행하는 게임 (전송 방식과 무관하게 명령 한 줄을 받아 응답 한 줄을 돌려줌)
+//대부분의 세션은 입력을 기다리며 놀고 있으므로 세션은 보드만 들고 있음 (go 를 쓴 세션만 치환표 하나를 더 가짐)
+//수 생성기와 수 목록(버퍼만 3KB 가량)은 명령을 처리하는 동안만 만들어 쓰고 버림
+//
+//명령:
+//  new [FEN]   새 게임 시작                  -> ok <FEN>
+//  fen         현재 국면                      -> ok <FEN>
+//  legal       합법 수 목록 (UCI)             -> ok e2e4 d2d4 ...
+//  move <uci>  수 두기                        -> ok <FEN> <상태>
+//  go <ms>     엔진이 이번 차례 수를 둠        -> ok <uci> <FEN> <상태>
+//  undo        한 수 무르기                    -> ok <FEN> <상태>
+//  redo        무른 수 다시 두기               -> ok <FEN> <상태>
+//  state       RUNNING / CHECK / CHECKMATE / STALEMATE
+//  quit        접속 종료                      -> bye
+//실패하면 error <이유>
+//한 게임은 MAX_GAME_PLIES 수까지만 둘 수 있음 (수 기록과 Board 의 되돌리기 기록이 세션마다 한없이 자라지 않도록)
+final class GameSession {
+    //세션 엔진이 쓰는 치환표 크기 (처음 go 할 때 한 번 만들어 세션 끝까지 씀, go 를 안 쓰는 세션은 치환표를 들고 있지 않음)
+    private static final int ENGINE_HASH_MEGABYTES = 1;
+    //한 게임의 최대 수 (반수), 규칙상 끝나는 게임은 이보다 훨씬 짧음
+    static final int MAX_GAME_PLIES = 2048;
+    //한 번에 생각할 수 있는 시간 상한
+    private static final long MAX_THINK_MILLIS = 10_000;
+    //동시에 도는 엔진 탐색 수를 코어 수로 제한
+    //탐색은 계산만 하므로 가상 스레드가 캐리어 스레드를 모두 차지하면 다른 세션의 입출력이 밀림
+    private static final Semaphore ENGINE_PERMITS = new Semaphore(Runtime.getRuntime().availableProcessors());
+
+    private Board board;
+    private MoveHistory history;
+    //엔진 치환표 (처음 go 할 때 만듦, 탐색마다 세대를 올려 이전 결과를 교체 대상으로 만들며 계속 씀)
+    private TranspositionTable table;
+    private boolean closed;
+
+    //명령 한 줄을 처리하고 응답 한 줄을 반환
+    String handle(String line){
+        String command = line.trim();
+        int space = command.indexOf(' ');
+        String name = (space < 0) ? command : command.substring(0, space);
+        String argument = (space < 0) ? "" : command.substring(space + 1).trim();
+        try{
+            switch (name){
+                case "new": return newGame(argument.isEmpty() ? Fen.START_POSITION : argument);
+                case "fen": return requireGame() ? "ok " + Fen.toFen(board) : "error no game";
+                case "legal": return requireGame() ? "ok " + legalMovesText() : "error no game";
+                case "move": return move(argument);
+                case "go": return engineMove(argument);
+                case "undo": return undo();
+                case "redo": return redo();
+                case "state": return requireGame() ? "ok " + state() : "error no game";
+                case "quit":
+                    closed = true;
+                    return "bye";
+                default: return "error unknown command " + name;
+            }
+        } catch (IllegalArgumentException e){
+            return "error " + e.getMessage();
+        }
+    }
+
+    boolean isClosed(){
+        return closed;
+    }
+
+    private String newGame(String fen){
+        board = Fen.parse(fen);
+        history = new MoveHistory();
+        return "ok " + Fen.toFen(board);
+    }
+
+    private String move(String uci){
+        if(!requireGame()){
+            return "error no game";
+        }
+        MoveList legalMoves = legalMoves();
+        int move = PackedMove.findUci(legalMoves, uci);
+        if(move == PackedMove.NONE){
+            return "error illegal " + uci;
+        }
+        if(isGameTooLong()){
+            return gameTooLongError();
+        }
+        board.makeMove(move);
+        history.push(move);
+        return "ok " + Fen.toFen(board) + " " + state();
+    }
+
+    private String undo(){
+        if(!requireGame()){
+            return "error no game";
+        }
+        if(history.undo() == PackedMove.NONE){
+            return "error nothing to undo";
+        }
+        board.unmakeLastMove();
+        return "ok " + Fen.toFen(board) + " " + state();
+    }
+
+    private String redo(){
+        if(!requireGame()){
+            return "error no game";
+        }
+        int move = history.redo();
+        if(move == PackedMove.NONE){
+            return "error nothing to redo";
+        }
+        board.makeMove(move);
+        return "ok " + Fen.toFen(board) + " " + state();
+    }
+
+    private String engineMove(String millisText){
+        if(!requireGame()){
+            return "error no game";
+        }
+        long millis = millisText.isEmpty() ? 100 : Long.parseLong(millisText);
+        if(millis <= 0 || millis > MAX_THINK_MILLIS){
+            return "error think time must be 1.." + MAX_THINK_MILLIS;
+        }
+        MoveList legalMoves = legalMoves();
+        if(legalMoves.isEmpty()){
+            return "error game over " + state();
+        }
+        if(isGameTooLong()){
+            return gameTooLongError();
+        }
+        if(table == null){
+            table = new TranspositionTable(ENGINE_HASH_MEGABYTES);
+        }
+        int move;
+        ENGINE_PERMITS.acquireUninterruptibly();
+        try{
+            //탐색은 보드 복사본에서 하고 치환표 세대를 올리므로 이전 탐색의 결과를 재사용하면서도 점차 교체됨
+            move = new ParallelSearch(board, 1, table).search(millis, Search.MAX_DEPTH);
+        } finally {
+            ENGINE_PERMITS.release();
+        }
+        //시간이 거의 없어 탐색이 수를 못 고른 경우에도 둘 수는 있어야 함
+        if(move == PackedMove.NONE || !legalMoves.contains(move)){
+            move = legalMoves.get(0);
+        }
+        board.makeMove(move);
+        history.push(move);
+        return "ok " + PackedMove.toUci(move) + " " + Fen.toFen(board) + " " + state();
+    }
+
+    private String legalMovesText(){
+        MoveList legalMoves = legalMoves();
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < legalMoves.size(); i++){
+            if(i > 0){
+                sb.append(' ');
+            }
+            sb.append(PackedMove.toUci(legalMoves.get(i)));
+        }
+        return sb.toString();
+    }
+
+    //둘 차례인 쪽 기준 게임 상태
+    Game.GameState state(){
+        Color side = board.getSideToMove();
+        MoveGenerator generator = new MoveGenerator(board);
+        boolean inCheck = generator.isKingInCheck(side);
+        boolean hasMoves = generator.hasAnyLegalMoves(side);
+        if(!hasMoves){
+            return inCheck ? Game.GameState.CHECKMATE : Game.GameState.STALEMATE;
+        }
+        return inCheck ? Game.GameState.CHECK : Game.GameState.RUNNING;
+    }
+
+    private MoveList legalMoves(){
+        MoveList legalMoves = new MoveList();
+        new MoveGenerator(board).generateLegalMoves(legalMoves);
+        return legalMoves;
+    }
+
+    private boolean isGameTooLong(){
+        return history.getPly() >= MAX_GAME_PLIES;
+    }
+
+    private static String gameTooLongError(){
+        return "error game longer than " + MAX_GAME_PLIES + " plies";
+    }
+
+    private boolean requireGame(){
+        return board != null;
+    }
+}
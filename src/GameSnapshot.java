@@ -0,0 +1,25 @@
+//Game 의 특정 시점을 나타내는 불변 기록
+//보드를 복사하지 않고 시작 국면 키와 그때까지의 수 목록만 담음 (수 하나당 4바이트)
+//같은 시작 국면의 Game 에 restore 하면 공통 수순까지 무른 뒤 나머지 수만 다시 둠
+final class GameSnapshot {
+    //시작 국면의 Zobrist 키 (다른 국면에서 시작한 게임에 복원하지 않도록 확인)
+    final long startKey;
+    private final int[] moves;
+    final Color sideToMove;
+    final Game.GameState state;
+
+    GameSnapshot(long startKey, int[] moves, Color sideToMove, Game.GameState state){
+        this.startKey = startKey;
+        this.moves = moves;
+        this.sideToMove = sideToMove;
+        this.state = state;
+    }
+
+    int getPly(){
+        return moves.length;
+    }
+
+    int getMove(int index){
+        return moves[index];
+    }
+}
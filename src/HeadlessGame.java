@@ -0,0 +1,163 @@
+import java.util.Arrays;
+
+//콘솔 입출력 없이 두 MoveSource 로 대국 하나를 끝까지 두는 진행기
+//체크메이트, 스테일메이트 외에 50수 규칙, 3회 반복, 기물 부족, 수 제한으로 무승부를 판정함
+final class HeadlessGame {
+    //밝은 칸 (y + x 가 짝수, a8 이 밝은 칸)
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    private final Board board;
+    private final MoveGenerator generator;
+    private final MoveList legalMoves = new MoveList();
+    private final MoveSource white;
+    private final MoveSource black;
+    private final int maxPlies;
+    //있으면 테이블에 있는 국면에서 대국을 판정으로 끝냄
+    private Tablebases tablebases;
+
+    //반복 판정용 국면 키 기록 (시작 국면 포함)
+    private long[] keys = new long[256];
+    private int keyCount;
+
+    HeadlessGame(Board board, MoveSource white, MoveSource black, int maxPlies){
+        this.board = board;
+        this.generator = new MoveGenerator(board);
+        this.white = white;
+        this.black = black;
+        this.maxPlies = maxPlies;
+    }
+
+    void setTablebases(Tablebases tablebases){
+        this.tablebases = tablebases;
+    }
+
+    //대국을 끝까지 두고 기록을 반환 (board 는 마지막 국면으로 남음)
+    GameRecord play(){
+        long start = System.nanoTime();
+        String startFen = Fen.toFen(board);
+        int[] moves = new int[64];
+        int plies = 0;
+        keyCount = 0;
+        pushKey(board.getZobristKey());
+
+        String result;
+        GameRecord.Termination termination;
+        while(true){
+            legalMoves.clear();
+            generator.generateLegalMoves(legalMoves);
+            Color side = board.getSideToMove();
+            if(legalMoves.isEmpty()){
+                if(generator.isKingInCheck(side)){
+                    result = (side == Color.WHITE) ? GameRecord.BLACK_WINS : GameRecord.WHITE_WINS;
+                    termination = GameRecord.Termination.CHECKMATE;
+                }
+                else{
+                    result = GameRecord.DRAW;
+                    termination = GameRecord.Termination.STALEMATE;
+                }
+                break;
+            }
+            termination = drawTermination(plies);
+            if(termination != null){
+                result = GameRecord.DRAW;
+                break;
+            }
+            //남은 기물이 테이블에 있으면 더 두지 않고 테이블의 결과로 끝냄
+            int value = (tablebases == null) ? Tablebases.NOT_FOUND : tablebases.probe(board);
+            if(value != Tablebases.NOT_FOUND){
+                if(Tablebase.isWin(value)){
+                    result = (side == Color.WHITE) ? GameRecord.WHITE_WINS : GameRecord.BLACK_WINS;
+                }
+                else if(Tablebase.isLoss(value)){
+                    result = (side == Color.WHITE) ? GameRecord.BLACK_WINS : GameRecord.WHITE_WINS;
+                }
+                else{
+                    result = GameRecord.DRAW;
+                }
+                termination = GameRecord.Termination.TABLEBASE;
+                break;
+            }
+
+            MoveSource source = (side == Color.WHITE) ? white : black;
+            int move = source.chooseMove(board, legalMoves);
+            if(move == PackedMove.NONE || !legalMoves.contains(move)){
+                result = (side == Color.WHITE) ? GameRecord.BLACK_WINS : GameRecord.WHITE_WINS;
+                termination = (move == PackedMove.NONE)
+                        ? GameRecord.Termination.RESIGNATION
+                        : GameRecord.Termination.ILLEGAL_MOVE;
+                break;
+            }
+
+            board.makeMove(move);
+            if(plies == moves.length){
+                moves = Arrays.copyOf(moves, plies * 2);
+            }
+            moves[plies++] = move;
+            pushKey(board.getZobristKey());
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000L;
+        return new GameRecord(startFen, Arrays.copyOf(moves, plies), white.getName(), black.getName(),
+                result, termination, durationMillis);
+    }
+
+    //규칙 또는 판정에 의한 무승부 이유 (아니면 null)
+    private GameRecord.Termination drawTermination(int plies){
+        if(board.getHalfmoveClock() >= 100){
+            return GameRecord.Termination.FIFTY_MOVES;
+        }
+        if(repetitionCount() >= 3){
+            return GameRecord.Termination.REPETITION;
+        }
+        if(isInsufficientMaterial(board)){
+            return GameRecord.Termination.INSUFFICIENT_MATERIAL;
+        }
+        if(plies >= maxPlies){
+            return GameRecord.Termination.MOVE_LIMIT;
+        }
+        return null;
+    }
+
+    //현재 국면이 나온 횟수 (같은 쪽 차례인 국면만, 폰 이동이나 잡기 이전은 보지 않음)
+    private int repetitionCount(){
+        long current = keys[keyCount - 1];
+        int limit = Math.min(keyCount - 1, board.getHalfmoveClock());
+        int count = 1;
+        for(int back = 2; back <= limit; back += 2){
+            if(keys[keyCount - 1 - back] == current){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void pushKey(long key){
+        if(keyCount == keys.length){
+            keys = Arrays.copyOf(keys, keyCount * 2);
+        }
+        keys[keyCount++] = key;
+    }
+
+    //어느 쪽도 체크메이트할 수 없는 기물 구성인지
+    //킹만 남았거나, 마이너 기물이 하나뿐이거나, 비숍들이 모두 같은 색 칸에 있는 경우
+    static boolean isInsufficientMaterial(Board board){
+        long heavy = 0;
+        long knights = 0;
+        long bishops = 0;
+        for(int c = 0; c < 2; c++){
+            Color color = (c == 0) ? Color.WHITE : Color.BLACK;
+            heavy |= board.getPieceBitboard(color, PieceType.PAWN)
+                    | board.getPieceBitboard(color, PieceType.ROOK)
+                    | board.getPieceBitboard(color, PieceType.QUEEN);
+            knights |= board.getPieceBitboard(color, PieceType.KNIGHT);
+            bishops |= board.getPieceBitboard(color, PieceType.BISHOP);
+        }
+        if(heavy != 0){
+            return false;
+        }
+        if(Long.bitCount(knights | bishops) <= 1){
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+}
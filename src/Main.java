@@ -1,8 +1,52 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Scanner;
+
 //TIP 코드를 <b>실행</b>하려면 <shortcut actionId="Run"/>을(를) 누르거나
 // 에디터 여백에 있는 <icon src="AllIcons.Actions.Execute"/> 아이콘을 클릭하세요.
 public class Main {
-    public static void main(String[] args) {
-        Game chessGame = new Game();
+    //옵션: --white-engine <ms>, --black-engine <ms> (해당 색을 생각 시간 ms 의 엔진이 둠)
+    //      --threads <n> (엔진 탐색 스레드 수)
+    //      --book <파일> (엔진이 북에 있는 국면에서는 북의 수를 둠)
+    //      --tb <디렉터리> (엔드게임 테이블, 엔진 탐색과 국면 안내에 씀)
+    public static void main(String[] args) throws IOException {
+        long whiteMillis = -1;
+        long blackMillis = -1;
+        int threads = 1;
+        String bookPath = null;
+        String tablebasePath = null;
+        for(int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--white-engine": whiteMillis = Long.parseLong(args[++i]); break;
+                case "--black-engine": blackMillis = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--book": bookPath = args[++i]; break;
+                case "--tb": tablebasePath = args[++i]; break;
+                default: throw new IllegalArgumentException("알 수 없는 옵션: " + args[i]);
+            }
+        }
+        //사람끼리는 콘솔 입력 하나를 같이 씀
+        Scanner console = new Scanner(System.in);
+        OpeningBook book = (bookPath == null) ? null : OpeningBook.open(Paths.get(bookPath));
+        Tablebases tablebases = (tablebasePath == null) ? null : Tablebases.open(Paths.get(tablebasePath));
+        MoveSource white = (whiteMillis < 0) ? new Player(Color.WHITE, console)
+                : engine(whiteMillis, threads, book, tablebases);
+        MoveSource black = (blackMillis < 0) ? new Player(Color.BLACK, console)
+                : engine(blackMillis, threads, book, tablebases);
+        Game chessGame = new Game(white, black, console);
+        chessGame.setTablebases(tablebases);
         chessGame.start();
+        if(book != null){
+            book.close();
+        }
+        if(tablebases != null){
+            tablebases.close();
+        }
+    }
+
+    private static MoveSource engine(long millis, int threads, OpeningBook book, Tablebases tablebases){
+        EngineMoveSource engine = new EngineMoveSource(millis, Search.MAX_DEPTH, threads, TranspositionTable.DEFAULT_MEGABYTES);
+        engine.setTablebases(tablebases);
+        return (book == null) ? engine : new BookMoveSource(book, engine, System.nanoTime());
     }
 }
\ No newline at end of file
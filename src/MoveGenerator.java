@@ -0,0 +1,342 @@
+import java.util.List;
+
+//한 보드에 대한 합법 수 생성기 (Game 의 규칙 검사를 콘솔 입출력 없이 사용하기 위해 분리)
+//내부 버퍼를 재사용하므로 한 스레드에서만 사용해야 함
+final class MoveGenerator {
+    private final Board board;
+
+    //합법 수 계산에 재사용하는 버퍼
+    private final MoveList pseudoMoves = new MoveList();
+    private final MoveList scratchMoves = new MoveList();
+
+    MoveGenerator(Board board){
+        this.board = board;
+    }
+
+    Board getBoard(){
+        return board;
+    }
+
+    //이번 차례 색상의 모든 합법 수를 legalMoves 에 추가
+    void generateLegalMoves(MoveList legalMoves){
+        generateLegalMoves(board.getSideToMove(), legalMoves);
+    }
+
+    //특정 색상의 모든 합법 수를 legalMoves 에 추가 (핀과 체크 정보는 국면당 한 번만 계산)
+    void generateLegalMoves(Color color, MoveList legalMoves){
+        long checkers = checkers(color);
+        long pinned = pinnedPieces(color);
+        List<Piece> pieces = board.getPieces(color);
+        for(int k = 0; k < pieces.size(); k++){
+            generateLegalMoves(pieces.get(k), checkers, pinned, legalMoves);
+        }
+    }
+
+    //color 의 킹을 공격하고 있는 상대 기물들 (킹이 없으면 0)
+    long checkers(Color color){
+        int kingSquare = board.getKingSquare(color);
+        if(kingSquare < 0){
+            return 0L;
+        }
+        return board.attackersTo(kingSquare, opposite(color));
+    }
+
+    //color 의 기물 중 움직이면 자기 킹이 상대 룩/비숍/퀸에게 드러나는 기물들
+    long pinnedPieces(Color color){
+        int kingSquare = board.getKingSquare(color);
+        if(kingSquare < 0){
+            return 0L;
+        }
+        Color them = opposite(color);
+        long ours = board.getColorOccupancy(color);
+        long queens = board.getPieceBitboard(them, PieceType.QUEEN);
+        //상대 기물만 막는다고 보고 킹에서 광선을 쏘면, 아군 기물 너머의 상대 장거리 기물까지 닿음
+        long theirs = board.getColorOccupancy(them);
+        long snipers = (Attacks.rook(kingSquare, theirs) & (board.getPieceBitboard(them, PieceType.ROOK) | queens))
+                | (Attacks.bishop(kingSquare, theirs) & (board.getPieceBitboard(them, PieceType.BISHOP) | queens));
+
+        long pinned = 0L;
+        while(snipers != 0){
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            //사이에 기물이 정확히 하나이고 그게 아군이면 핀
+            long blockers = Attacks.between(kingSquare, sniper) & board.getOccupancy();
+            if(blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & ours) != 0){
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    //특정 색상의 킹이 현재 체크 상태인지 확인
+    //킹 위치에서 거꾸로 공격 여부만 확인하므로 상대 기물의 이동 목록을 만들지 않음
+    boolean isKingInCheck(Color kingColor) {
+        int kingSquare = board.getKingSquare(kingColor);
+        if (kingSquare < 0) return true;
+
+        Color opponentColor = (kingColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        return board.isSquareAttacked(kingSquare, opponentColor);
+    }
+
+    //킹을 위협에 빠트리지 않는 합법적인 이동만 필터링하여 legalMoves 에 추가
+    //수를 두어 보지 않고 핀과 체크 정보만으로 판단
+    private void getStandardLegalMoves(Piece piece, long checkers, long pinned, MoveList legalMoves) {
+        //의사 합법 이동은 재사용 버퍼에 생성
+        MoveList pseudoLegalMoves = this.pseudoMoves;
+        pseudoLegalMoves.clear();
+        piece.generateMoves(board, pseudoLegalMoves);
+
+        for (int i = 0; i < pseudoLegalMoves.size(); i++) {
+            int move = pseudoLegalMoves.get(i);
+            if (isLegal(move, checkers, pinned)) {
+                legalMoves.add(move); // 안전하다면 합법적인 이동(Legal Move)으로 인정
+            }
+        }
+    }
+
+    //합법적인 이동이 있는가 반환
+    //전체 목록을 만들지 않고 의사 합법 수를 하나씩 확인하여 첫 합법 수에서 바로 끝냄
+    boolean hasAnyLegalMoves(Color playerColor) {
+        List<Piece> myPieces = board.getPieces(playerColor);
+        MoveList pseudoLegalMoves = this.scratchMoves;
+        long checkers = checkers(playerColor);
+        long pinned = pinnedPieces(playerColor);
+
+        //체크 상황에서 가장 자주 답이 나오는 킹부터 확인
+        int kingSquare = board.getKingSquare(playerColor);
+        if(kingSquare >= 0 && hasLegalStandardMove(board.getPieceAt(kingSquare), checkers, pinned, pseudoLegalMoves)){
+            return true;
+        }
+        //이중 체크면 킹만 움직일 수 있음
+        if((checkers & (checkers - 1)) != 0){
+            return false;
+        }
+        for(int k = 0; k < myPieces.size(); k++){
+            Piece piece = myPieces.get(k);
+            // 한 기물이라도 합법적인 이동이 있으면 true반환
+            if(!(piece instanceof King) && hasLegalStandardMove(piece, checkers, pinned, pseudoLegalMoves)){
+                return true;
+            }
+        }
+
+        //캐슬링은 보지 않아도 됨: 합법 캐슬링이 있으면 킹이 지나가는 칸(f/d 파일)으로 한 칸 가는 수도 합법이므로 위에서 이미 찾음
+        //앙파상만 남은 유일한 수일 수 있으므로 마지막에 확인
+        for(int k = 0; k < myPieces.size(); k++){
+            Piece piece = myPieces.get(k);
+            if(piece instanceof Pawn && getLegalEnPassantMove((Pawn) piece) != PackedMove.NONE){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //앙파상과 캐슬링을 제외한 수 중 합법 수가 하나라도 있는지
+    private boolean hasLegalStandardMove(Piece piece, long checkers, long pinned, MoveList pseudoLegalMoves){
+        pseudoLegalMoves.clear();
+        piece.generateMoves(board, pseudoLegalMoves);
+        for(int i = 0; i < pseudoLegalMoves.size(); i++){
+            if(isLegal(pseudoLegalMoves.get(i), checkers, pinned)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //의사 합법 수를 두었을 때 자기 킹이 안전한지
+    boolean isLegal(int move){
+        Color color = board.getPieceAt(PackedMove.from(move)).getColor();
+        return isLegal(move, checkers(color), pinnedPieces(color));
+    }
+
+    //핀과 체크 정보로 의사 합법 수의 합법 여부 판단 (checkers, pinned 는 현재 국면에서 계산한 값)
+    //- 킹: 킹을 뺀 점유로 도착 칸이 공격받지 않아야 함 (킹이 광선 방향으로 물러나는 경우까지 포함)
+    //- 체크 중: 체크한 기물을 잡거나 사이를 막아야 함, 이중 체크면 킹만 가능
+    //- 핀된 기물: 킹과 핀한 기물을 잇는 줄 위에서만 이동
+    //- 앙파상: 두 폰이 한꺼번에 사라지는 드러난 체크가 있어 실제로 두어 확인
+    boolean isLegal(int move, long checkers, long pinned){
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        Color us = board.getPieceAt(from).getColor();
+        int kingSquare = board.getKingSquare(us);
+        if(kingSquare < 0){
+            return false;
+        }
+        if(PackedMove.isEnPassant(move)){
+            return isLegalBySimulation(move, us);
+        }
+        if(from == kingSquare){
+            //캐슬링은 경로 안전까지 확인된 것만 만들어짐
+            if(PackedMove.isCastle(move)){
+                return true;
+            }
+            return !board.isSquareAttacked(to, opposite(us), board.getOccupancy() ^ (1L << from));
+        }
+        if(checkers != 0){
+            if((checkers & (checkers - 1)) != 0){
+                return false;
+            }
+            int checker = Long.numberOfTrailingZeros(checkers);
+            long evasions = Attacks.between(kingSquare, checker) | checkers;
+            if(((evasions >>> to) & 1L) == 0){
+                return false;
+            }
+        }
+        if(((pinned >>> from) & 1L) != 0){
+            return ((Attacks.line(kingSquare, from) >>> to) & 1L) != 0;
+        }
+        return true;
+    }
+
+    //실제로 두었다가 되돌려 자기 킹이 안전한지 확인
+    private boolean isLegalBySimulation(int move, Color color){
+        UndoInfo undo = board.makeMove(move);
+        boolean isSafe = !isKingInCheck(color);
+        board.unmakeMove(undo);
+        return isSafe;
+    }
+
+    private static Color opposite(Color color){
+        return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    }
+
+    //이번 차례 색상의 잡기 수(프로모션, 앙파상 포함)를 의사 합법 수로 추가 (자기 킹 안전은 확인하지 않음)
+    void generateCaptures(MoveList moves){
+        List<Piece> pieces = board.getPieces(board.getSideToMove());
+        for(int k = 0; k < pieces.size(); k++){
+            Piece piece = pieces.get(k);
+            piece.generateCaptures(board, moves);
+            if(piece instanceof Pawn){
+                int enPassantMove = getEnPassantMove((Pawn) piece);
+                if(enPassantMove != PackedMove.NONE){
+                    moves.add(enPassantMove);
+                }
+            }
+        }
+    }
+
+    //이번 차례 색상의 조용한 수를 의사 합법 수로 추가 (캐슬링은 경로 안전까지 확인된 것만)
+    void generateQuiets(MoveList moves){
+        List<Piece> pieces = board.getPieces(board.getSideToMove());
+        for(int k = 0; k < pieces.size(); k++){
+            Piece piece = pieces.get(k);
+            piece.generateQuiets(board, moves);
+            if(piece instanceof King){
+                getLegalCastlingMoves((King) piece, moves);
+            }
+        }
+    }
+
+    //킹을 위협에 빠지지 않게 하는 합법적인 이동에 앙파상 및 캐슬링 규칙 추가
+    void generateLegalMoves(Piece piece, MoveList legalMoves) {
+        Color color = piece.getColor();
+        generateLegalMoves(piece, checkers(color), pinnedPieces(color), legalMoves);
+    }
+
+    private void generateLegalMoves(Piece piece, long checkers, long pinned, MoveList legalMoves) {
+        //이중 체크면 킹 말고는 움직일 수 없음
+        if((checkers & (checkers - 1)) != 0 && !(piece instanceof King)){
+            return;
+        }
+
+        //킹을 위험에 빠트리지 않는 표준 이동
+        getStandardLegalMoves(piece, checkers, pinned, legalMoves);
+
+        //캐슬링 추가 (체크 중이면 불가)
+        if(piece instanceof King && checkers == 0){
+            getLegalCastlingMoves((King) piece, legalMoves);
+        }
+
+        if (piece instanceof Pawn){
+            int enPassantMove = getLegalEnPassantMove((Pawn) piece);
+
+            if(enPassantMove != PackedMove.NONE){
+                legalMoves.add(enPassantMove);
+            }
+        }
+    }
+
+    // 왕과 룩이 한 번도 움직이지 않았는지(hasMoved=false).
+    // 왕과 룩 사이의 경로가 비어 있는지.
+    // 왕이 이동하는 칸이나 경로가 공격받지 않는지(isSquareSafe)를 검사합니다.
+    private void getLegalCastlingMoves(King king, MoveList castlingMoves) {
+        //킹이 움직인 적 없고, 현재 체크 상태가 아니여야 함
+        if(king.hasMoved() || isKingInCheck(king.getColor())){
+            return;
+        }
+
+        int y =  king.getPosition().getY();
+        int from = king.getPosition().index();
+        Color color = king.getColor();
+
+        // 룩 검사
+        Piece leftRook = board.getPieceAt(Position.of(y,0));
+        if(leftRook instanceof Rook && !leftRook.hasMoved()){
+            // 경로 검사 y 1 y 2 y 3이 비어있어야 함
+            if(board.isEmpty(Position.of(y,1)) && board.isEmpty(Position.of(y,2)) && board.isEmpty(Position.of(y,3))){
+                // 경로 안전 감사 y 2 y 3이 공격받지 않아야 함.
+                if(isSquareSafe(Position.of(y,2), color) && isSquareSafe(Position.of(y,3),color)){
+                    castlingMoves.add(PackedMove.of(from, Position.of(y,2).index(), PackedMove.CASTLE));
+                }
+            }
+        }
+
+
+        //반대쪽 검사
+        Piece rightRook = board.getPieceAt(Position.of(y,7));
+        if(rightRook instanceof Rook && !rightRook.hasMoved()){
+            if(board.isEmpty(Position.of(y,5)) && board.isEmpty(Position.of(y,6))){
+                if(isSquareSafe(Position.of(y,5),color) && isSquareSafe(Position.of(y,6),color)){
+                    castlingMoves.add(PackedMove.of(from, Position.of(y,6).index(), PackedMove.CASTLE));
+                }
+            }
+        }
+    }
+
+    //앙파상 수를 두어도 킹이 안전할 때만 반환, 없으면 PackedMove.NONE 반환
+    private int getLegalEnPassantMove(Pawn pawn) {
+        int enPassantMove = getEnPassantMove(pawn);
+        if (enPassantMove != PackedMove.NONE && isLegalBySimulation(enPassantMove, pawn.getColor())) {
+            return enPassantMove;
+        }
+        return PackedMove.NONE;
+    }
+
+    //직전 수(board.getLastMove())가 상대 폰의 2칸 전진이었는지 확인하고,
+    //해당 백색/흑색 폰이 앙파상 위치에 있는지 검사합니다. (킹 안전은 확인하지 않음)
+    //없으면 PackedMove.NONE 반환
+    private int getEnPassantMove(Pawn pawn) {
+        int lastMove = board.getLastPackedMove();
+        if (lastMove == PackedMove.NONE) return PackedMove.NONE;
+
+        int lastFrom = PackedMove.from(lastMove);
+        int lastTo = PackedMove.to(lastMove);
+        Piece lastMovedPiece = board.getPieceAt(lastTo);
+
+        // 1. 직전 턴에 상대가 폰을 2칸 전진시켰는지 확인
+        if (!(lastMovedPiece instanceof Pawn) ||
+                lastMovedPiece.getColor() == pawn.getColor() ||
+                Math.abs(lastTo / 8 - lastFrom / 8) != 2) {
+            return PackedMove.NONE;
+        }
+
+        // 2. 내 폰 바로 옆에 있는지 확인
+        int y = pawn.getPosition().getY();
+        int x = pawn.getPosition().getX();
+        if (lastTo / 8 != y || Math.abs(lastTo % 8 - x) != 1) {
+            return PackedMove.NONE;
+        }
+
+        // 3. 앙파상 이동 목적지 계산
+        int targetY = (pawn.getColor() == Color.WHITE) ? y - 1 : y + 1;
+        int target = targetY * 8 + lastTo % 8;
+
+        return PackedMove.of(pawn.getPosition().index(), target,
+                PackedMove.EN_PASSANT | PackedMove.CAPTURE);
+    }
+
+    //캐슬링처럼 특정 칸이 상대 기물에게 공격받는지 확인해야 할 때 사용되는 헬퍼 메서드
+    private boolean isSquareSafe(Position pos, Color myColor){
+        Color opponentColor = (myColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        return !board.isSquareAttacked(pos, opponentColor);
+    }
+}
@@ -0,0 +1,77 @@
+//게임에서 둔 수의 기록 (PackedMove 배열, 무르기 / 다시 두기 지원)
+//수는 뒤에 덧붙이기만 하고, 무른 수는 지우지 않고 ply 만 줄여 다시 두기에 씀
+//무른 뒤 다른 수를 두면 그 뒤의 기록을 버리고 새 갈래로 이어 씀
+//국면 복원은 Board 의 되돌리기 기록(UndoInfo)이 맡으므로 여기에는 수 하나당 int 하나만 남음
+final class MoveHistory {
+    private int[] moves;
+    //현재 국면까지 둔 수의 개수
+    private int ply;
+    //다시 두기로 갈 수 있는 끝 (ply <= length)
+    private int length;
+
+    MoveHistory(){
+        this.moves = new int[16];
+    }
+
+    //수 하나를 덧붙임
+    //다시 두기 기록의 다음 수와 같으면 기록을 유지한 채 앞으로만 이동
+    void push(int move){
+        if(ply < length && moves[ply] == move){
+            ply++;
+            return;
+        }
+        if(ply == moves.length){
+            int[] bigger = new int[moves.length * 2];
+            System.arraycopy(moves, 0, bigger, 0, ply);
+            moves = bigger;
+        }
+        moves[ply++] = move;
+        length = ply;
+    }
+
+    //무를 수 (없으면 PackedMove.NONE)
+    int undo(){
+        return (ply > 0) ? moves[--ply] : PackedMove.NONE;
+    }
+
+    //다시 둘 수 (없으면 PackedMove.NONE)
+    int redo(){
+        return (ply < length) ? moves[ply++] : PackedMove.NONE;
+    }
+
+    boolean canUndo(){
+        return ply > 0;
+    }
+
+    boolean canRedo(){
+        return ply < length;
+    }
+
+    int getPly(){
+        return ply;
+    }
+
+    int getLength(){
+        return length;
+    }
+
+    //i 번째 수 (0 부터, 다시 두기 기록 포함)
+    int get(int index){
+        if(index < 0 || index >= length){
+            throw new IndexOutOfBoundsException("기록 범위를 벗어났습니다: " + index);
+        }
+        return moves[index];
+    }
+
+    //현재 국면까지의 수 목록 복사본
+    int[] toArray(){
+        int[] copy = new int[ply];
+        System.arraycopy(moves, 0, copy, 0, ply);
+        return copy;
+    }
+
+    void clear(){
+        ply = 0;
+        length = 0;
+    }
+}
@@ -0,0 +1,67 @@
+//PackedMove 로 인코딩된 이동을 담는 재사용 버퍼
+//한 번 만들어 두고 clear() 후 다시 채워 쓰므로 생성 시 외에는 할당이 없음
+final class MoveList {
+    //한 국면의 합법 수는 최대 218개
+    static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    MoveList(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    MoveList(int capacity){
+        this.moves = new int[capacity];
+        this.size = 0;
+    }
+
+    void add(int move){
+        if(size == moves.length){
+            int[] bigger = new int[moves.length * 2];
+            System.arraycopy(moves, 0, bigger, 0, size);
+            moves = bigger;
+        }
+        moves[size++] = move;
+    }
+
+    int get(int index){
+        return moves[index];
+    }
+
+    void set(int index, int move){
+        moves[index] = move;
+    }
+
+    void swap(int i, int j){
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    int size(){
+        return size;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    void clear(){
+        size = 0;
+    }
+
+    //size 이후를 버려 목록을 줄임
+    void truncate(int newSize){
+        size = newSize;
+    }
+
+    boolean contains(int move){
+        for(int i = 0; i < size; i++){
+            if(moves[i] == move){
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+//탐색 한 노드의 수를 단계별로 필요한 만큼만 생성하여 하나씩 돌려주는 생성기
+//단계: 치환표 수 -> 잡기(MVV-LVA 순) -> 조용한 수(킬러 수 먼저)
+//앞 단계에서 베타 컷이 나면 조용한 수는 아예 생성하지 않음
+//핀과 체크 정보를 노드마다 한 번 계산해 두고 합법 수만 돌려줌
+final class MovePicker {
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_GENERATE_CAPTURES = 1;
+    private static final int STAGE_CAPTURES = 2;
+    private static final int STAGE_GENERATE_QUIETS = 3;
+    private static final int STAGE_QUIETS = 4;
+    private static final int STAGE_DONE = 5;
+
+    private final Board board;
+    private final MoveGenerator generator;
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[MoveList.DEFAULT_CAPACITY];
+    //치환표 수 검증용 버퍼
+    private final MoveList scratch = new MoveList();
+
+    private int stage;
+    private int index;
+    private int hashMove;
+    private int killer1;
+    private int killer2;
+    private boolean capturesOnly;
+    //이 노드에서 둘 차례인 쪽의 체크한 기물과 핀된 기물
+    private long checkers;
+    private long pinned;
+
+    MovePicker(Board board, MoveGenerator generator){
+        this.board = board;
+        this.generator = generator;
+    }
+
+    //새 노드에서 다시 사용 (capturesOnly 면 잡기와 프로모션만)
+    void reset(int hashMove, int killer1, int killer2, boolean capturesOnly){
+        this.stage = STAGE_HASH;
+        this.index = 0;
+        this.capturesOnly = capturesOnly;
+        Color side = board.getSideToMove();
+        this.checkers = generator.checkers(side);
+        this.pinned = generator.pinnedPieces(side);
+        this.hashMove = isPseudoLegal(hashMove) ? hashMove : PackedMove.NONE;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+    }
+
+    //다음 합법 수 (더 없으면 PackedMove.NONE)
+    int next(){
+        int move;
+        while((move = nextPseudoLegal()) != PackedMove.NONE){
+            if(generator.isLegal(move, checkers, pinned)){
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    //현재 국면에서 둘 차례인 쪽이 체크 상태인지
+    boolean inCheck(){
+        return checkers != 0;
+    }
+
+    private int nextPseudoLegal(){
+        while(true){
+            switch (stage){
+                case STAGE_HASH:
+                    stage = STAGE_GENERATE_CAPTURES;
+                    if(hashMove != PackedMove.NONE){
+                        return hashMove;
+                    }
+                    break;
+                case STAGE_GENERATE_CAPTURES:
+                    moves.clear();
+                    generator.generateCaptures(moves);
+                    scoreCaptures();
+                    index = 0;
+                    stage = STAGE_CAPTURES;
+                    break;
+                case STAGE_CAPTURES: {
+                    int move = pickNext();
+                    if(move != PackedMove.NONE){
+                        return move;
+                    }
+                    stage = capturesOnly ? STAGE_DONE : STAGE_GENERATE_QUIETS;
+                    break;
+                }
+                case STAGE_GENERATE_QUIETS:
+                    moves.clear();
+                    generator.generateQuiets(moves);
+                    scoreQuiets();
+                    index = 0;
+                    stage = STAGE_QUIETS;
+                    break;
+                case STAGE_QUIETS: {
+                    int move = pickNext();
+                    if(move != PackedMove.NONE){
+                        return move;
+                    }
+                    stage = STAGE_DONE;
+                    break;
+                }
+                default:
+                    return PackedMove.NONE;
+            }
+        }
+    }
+
+    //남은 수 중 점수가 가장 높은 수 (치환표 수는 이미 돌려주었으므로 건너뜀)
+    private int pickNext(){
+        while(index < moves.size()){
+            int best = index;
+            for(int i = index + 1; i < moves.size(); i++){
+                if(scores[i] > scores[best]){
+                    best = i;
+                }
+            }
+            if(best != index){
+                moves.swap(index, best);
+                int tmp = scores[index];
+                scores[index] = scores[best];
+                scores[best] = tmp;
+            }
+            int move = moves.get(index++);
+            if(move != hashMove){
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    //싼 기물로 비싼 기물을 잡는 수 우선, 프로모션은 승급 기물 가치만큼
+    private void scoreCaptures(){
+        ensureScoreCapacity();
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            int score = 0;
+            if(PackedMove.isCapture(move)){
+                Piece victim = board.getPieceAt(PackedMove.to(move));
+                Piece attacker = board.getPieceAt(PackedMove.from(move));
+                //앙파상은 도착 칸이 비어 있으므로 폰을 잡는 것으로 계산
+                int victimValue = (victim == null) ? Evaluator.PIECE_VALUES[0] : Evaluator.PIECE_VALUES[victim.getType().ordinal()];
+                score = victimValue * 10 - Evaluator.PIECE_VALUES[attacker.getType().ordinal()] / 10;
+            }
+            if(PackedMove.isPromotion(move)){
+                score += Evaluator.PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+            }
+            scores[i] = score;
+        }
+    }
+
+    private void scoreQuiets(){
+        ensureScoreCapacity();
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            scores[i] = (move == killer1) ? 2 : (move == killer2) ? 1 : 0;
+        }
+    }
+
+    //MoveList 는 기본 크기를 넘으면 늘어나므로 점수 버퍼도 같이 늘림 (유사 합법 수는 218개를 넘을 수 있음)
+    private void ensureScoreCapacity(){
+        if(scores.length < moves.size()){
+            scores = new int[moves.size()];
+        }
+    }
+
+    //치환표 수가 이 국면에서도 둘 수 있는 수인지 (해시 충돌로 다른 국면의 수일 수 있음)
+    //앙파상과 캐슬링은 잡기/조용한 수 단계에서 정상적으로 나오므로 여기서는 제외
+    private boolean isPseudoLegal(int move){
+        if(move == PackedMove.NONE || PackedMove.isEnPassant(move) || PackedMove.isCastle(move)){
+            return false;
+        }
+        //잡기만 보는 노드에서는 조용한 치환표 수를 쓰지 않음
+        if(capturesOnly && !PackedMove.isCapture(move) && !PackedMove.isPromotion(move)){
+            return false;
+        }
+        Piece piece = board.getPieceAt(PackedMove.from(move));
+        if(piece == null || piece.getColor() != board.getSideToMove()){
+            return false;
+        }
+        scratch.clear();
+        piece.generateMoves(board, scratch);
+        return scratch.contains(move);
+    }
+}
@@ -0,0 +1,16 @@
+//한 국면에서 둘 수를 고르는 쪽 (콘솔의 사람, 엔진, 정해진 수순, 원격 상대 등)
+//Game 과 HeadlessGame 은 수가 어떻게 정해지는지 모른 채 PackedMove 로만 주고받음
+//프로모션 기물도 반환하는 수에 들어 있음
+interface MoveSource {
+    //legalMoves 중 하나를 반환 (board 와 legalMoves 는 호출 동안만 유효하며, board 를 바꾼 경우 되돌려 놓아야 함)
+    //더 둘 수가 없으면(기권, 수순 끝, 연결 끊김) PackedMove.NONE
+    int chooseMove(Board board, MoveList legalMoves);
+
+    //기록(PGN 등)에 남길 이름
+    String getName();
+
+    //콘솔에서 사람이 입력하는지 (Game 이 시작 대기와 화면 정리를 할지 결정)
+    default boolean isInteractive(){
+        return false;
+    }
+}
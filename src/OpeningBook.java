@@ -0,0 +1,313 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+//국면 키(Zobrist) 별로 수와 가중치를 담은 오프닝 북
+//  0..3   "SWPB"
+//  4..7   형식 버전
+//  8..15  항목 수
+//  16..   항목마다 16바이트: 국면 키(long), 수(PackedMove int), 가중치(int)
+//항목은 (키, 수) 오름차순으로 정렬되어 있어 매핑한 파일에서 바로 이진 탐색함 (힙에 읽어 들이지 않음)
+//같은 키의 항목은 붙어 있으므로 한 국면의 수는 한 번의 탐색과 연속 읽기로 모두 얻음
+//사용법: java OpeningBook build <파일.pgn> <출력.book> [--plies N] [--min N]
+//        java OpeningBook probe <파일.book> [FEN]
+final class OpeningBook implements Closeable {
+    static final int MAGIC = 0x53575042;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 16;
+    //한 국면에서 읽는 최대 수 개수
+    static final int MAX_MOVES = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer entries, int size){
+        this.channel = channel;
+        this.entries = entries;
+        this.size = size;
+    }
+
+    static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining()){
+                if(channel.read(header, header.position()) < 0){
+                    throw new IOException("파일이 너무 짧습니다: " + path);
+                }
+            }
+            header.flip();
+            if(header.getInt() != MAGIC){
+                throw new IOException("오프닝 북 파일이 아닙니다: " + path);
+            }
+            int version = header.getInt();
+            if(version != VERSION){
+                throw new IOException("지원하지 않는 형식 버전: " + version);
+            }
+            long size = header.getLong();
+            if(size * ENTRY_SIZE > Integer.MAX_VALUE){
+                throw new IOException("항목이 너무 많습니다: " + size);
+            }
+            if(channel.size() < HEADER_SIZE + size * ENTRY_SIZE){
+                throw new IOException("파일이 잘렸습니다: " + path);
+            }
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size * ENTRY_SIZE);
+            return new OpeningBook(channel, entries, (int) size);
+        } catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    int size(){
+        return size;
+    }
+
+    //key 국면의 수와 가중치를 채우고 개수를 반환 (없으면 0)
+    //매핑된 버퍼를 절대 위치로만 읽으므로 여러 스레드에서 동시에 불러도 됨
+    int lookup(long key, int[] moves, int[] weights){
+        int low = 0;
+        int high = size;
+        //key 이상인 첫 항목
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(Long.compareUnsigned(entries.getLong(mid * ENTRY_SIZE), key) < 0){
+                low = mid + 1;
+            }
+            else{
+                high = mid;
+            }
+        }
+        int count = 0;
+        for(int i = low; i < size && count < moves.length; i++){
+            int offset = i * ENTRY_SIZE;
+            if(entries.getLong(offset) != key){
+                break;
+            }
+            moves[count] = entries.getInt(offset + 8);
+            weights[count] = entries.getInt(offset + 12);
+            count++;
+        }
+        return count;
+    }
+
+    //board 국면의 북 수 하나를 가중치에 비례해 무작위로 고름 (없으면 PackedMove.NONE)
+    //키 충돌로 다른 국면의 수가 나올 수 있으므로 legalMoves 에 있는 수만 고름
+    int choose(Board board, MoveList legalMoves, Random random){
+        int[] moves = new int[MAX_MOVES];
+        int[] weights = new int[MAX_MOVES];
+        int count = lookup(board.getZobristKey(), moves, weights);
+        long total = 0;
+        for(int i = 0; i < count; i++){
+            if(!legalMoves.contains(moves[i])){
+                weights[i] = 0;
+            }
+            total += weights[i];
+        }
+        if(total <= 0){
+            return PackedMove.NONE;
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for(int i = 0; i < count; i++){
+            pick -= weights[i];
+            if(pick < 0){
+                return moves[i];
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //PGN 대국들의 앞 maxPlies 수로 북을 만듦
+    //가중치는 그 수를 둔 쪽 기준 승 2, 무 1, 패 0 을 더한 값이며, minGames 판 미만으로 나온 수는 뺌
+    //집계는 국면 키별 (수, 둔 횟수, 가중치) 목록을 힙에 모은 뒤 정렬해 한 번에 씀 (오프라인 작업)
+    static long build(Path pgnPath, Path bookPath, int maxPlies, int minGames) throws IOException {
+        Map<Long, int[]> table = new HashMap<>();
+        MoveList legalMoves = new MoveList();
+        try(PgnReader reader = PgnReader.open(pgnPath)){
+            PgnGame game;
+            while((game = reader.next()) != null){
+                int whiteScore = score(game.result, true);
+                int blackScore = score(game.result, false);
+                if(whiteScore < 0){
+                    //결과가 없는 대국은 가중치를 줄 수 없으므로 건너뜀
+                    continue;
+                }
+                Board board = Fen.parse(game.getStartFen());
+                MoveGenerator generator = new MoveGenerator(board);
+                int plies = Math.min(maxPlies, game.moves.size());
+                for(int ply = 0; ply < plies; ply++){
+                    legalMoves.clear();
+                    generator.generateLegalMoves(legalMoves);
+                    int move = Pgn.parseSan(board, legalMoves, game.moves.get(ply));
+                    if(move == PackedMove.NONE){
+                        break;
+                    }
+                    int weight = (board.getSideToMove() == Color.WHITE) ? whiteScore : blackScore;
+                    addMove(table, board.getZobristKey(), move, weight);
+                    board.makeMove(move);
+                }
+            }
+        }
+
+        //키 순서로 정렬 (lookup 과 같은 부호 없는 비교)
+        long[] keys = new long[table.size()];
+        int k = 0;
+        for(Long key : table.keySet()){
+            keys[k++] = key ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+
+        long written = 0;
+        try(FileChannel channel = FileChannel.open(bookPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(0);
+            for(int i = 0; i < keys.length; i++){
+                long key = keys[i] ^ Long.MIN_VALUE;
+                int[] moves = table.get(key);
+                //(수, 둔 횟수, 가중치) 세 칸씩, 수 순서로 정렬해 씀
+                int count = moves[0];
+                sortByMove(moves, count);
+                for(int m = 0; m < count; m++){
+                    int move = moves[1 + m * 3];
+                    int games = moves[2 + m * 3];
+                    int weight = moves[3 + m * 3];
+                    if(games < minGames){
+                        continue;
+                    }
+                    if(buffer.remaining() < ENTRY_SIZE){
+                        flush(channel, buffer);
+                    }
+                    //진 대국에서만 나온 수도 드물게는 고를 수 있도록 가중치는 최소 1
+                    buffer.putLong(key).putInt(move).putInt(Math.max(weight, 1));
+                    written++;
+                }
+            }
+            flush(channel, buffer);
+            channel.write(ByteBuffer.allocate(8).putLong(0, written), 8);
+        }
+        return written;
+    }
+
+    //PGN 결과에서 한쪽의 점수 (승 2, 무 1, 패 0, 결과 없음 -1)
+    private static int score(String result, boolean white){
+        switch (result){
+            case GameRecord.WHITE_WINS: return white ? 2 : 0;
+            case GameRecord.BLACK_WINS: return white ? 0 : 2;
+            case GameRecord.DRAW: return 1;
+            default: return -1;
+        }
+    }
+
+    //키별 배열: [개수, (수, 둔 횟수, 가중치) * 개수]
+    private static void addMove(Map<Long, int[]> table, long key, int move, int weight){
+        int[] moves = table.get(key);
+        if(moves == null){
+            moves = new int[1 + 3 * 2];
+            table.put(key, moves);
+        }
+        int count = moves[0];
+        for(int m = 0; m < count; m++){
+            if(moves[1 + m * 3] == move){
+                moves[2 + m * 3]++;
+                moves[3 + m * 3] += weight;
+                return;
+            }
+        }
+        if(1 + (count + 1) * 3 > moves.length){
+            moves = Arrays.copyOf(moves, 1 + count * 2 * 3);
+            table.put(key, moves);
+        }
+        moves[1 + count * 3] = move;
+        moves[2 + count * 3] = 1;
+        moves[3 + count * 3] = weight;
+        moves[0] = count + 1;
+    }
+
+    //(수, 둔 횟수, 가중치) 묶음을 수 순서로 삽입 정렬 (한 국면의 수는 많지 않음)
+    private static void sortByMove(int[] moves, int count){
+        for(int i = 1; i < count; i++){
+            int move = moves[1 + i * 3];
+            int games = moves[2 + i * 3];
+            int weight = moves[3 + i * 3];
+            int j = i - 1;
+            while(j >= 0 && moves[1 + j * 3] > move){
+                moves[1 + (j + 1) * 3] = moves[1 + j * 3];
+                moves[2 + (j + 1) * 3] = moves[2 + j * 3];
+                moves[3 + (j + 1) * 3] = moves[3 + j * 3];
+                j--;
+            }
+            moves[1 + (j + 1) * 3] = move;
+            moves[2 + (j + 1) * 3] = games;
+            moves[3 + (j + 1) * 3] = weight;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2){
+            System.out.println("사용법: java OpeningBook build <파일.pgn> <출력.book> [--plies N] [--min N]");
+            System.out.println("        java OpeningBook probe <파일.book> [FEN]");
+            return;
+        }
+        if(args[0].equals("build")){
+            int plies = 20;
+            int minGames = 1;
+            for(int i = 3; i < args.length; i++){
+                switch (args[i]){
+                    case "--plies": plies = Integer.parseInt(args[++i]); break;
+                    case "--min": minGames = Integer.parseInt(args[++i]); break;
+                    default: throw new IllegalArgumentException("알 수 없는 옵션: " + args[i]);
+                }
+            }
+            long start = System.nanoTime();
+            long entries = build(Paths.get(args[1]), Paths.get(args[2]), plies, minGames);
+            System.out.printf(Locale.ROOT, "항목 %d개, %d 바이트, %.3f초%n",
+                    entries, HEADER_SIZE + entries * ENTRY_SIZE, (System.nanoTime() - start) / 1e9);
+            return;
+        }
+        if(args[0].equals("probe")){
+            String fen = (args.length > 2) ? args[2] : Fen.START_POSITION;
+            Board board = Fen.parse(fen);
+            long start = System.nanoTime();
+            try(OpeningBook book = open(Paths.get(args[1]))){
+                long opened = System.nanoTime();
+                int[] moves = new int[MAX_MOVES];
+                int[] weights = new int[MAX_MOVES];
+                int count = book.lookup(board.getZobristKey(), moves, weights);
+                long found = System.nanoTime();
+                System.out.printf(Locale.ROOT, "항목 %d개, 열기 %.3fms, 찾기 %.3fus%n",
+                        book.size(), (opened - start) / 1e6, (found - opened) / 1e3);
+                for(int i = 0; i < count; i++){
+                    System.out.println(PackedMove.toUci(moves[i]) + " " + weights[i]);
+                }
+            }
+            return;
+        }
+        throw new IllegalArgumentException("알 수 없는 명령: " + args[0]);
+    }
+}
@@ -0,0 +1,127 @@
+//이동 하나를 int 하나에 담는 인코딩 (객체를 만들지 않기 위함)
+// 비트  0~5 : 출발 칸 번호 (y * 8 + x)
+// 비트  6~11: 목적 칸 번호
+// 비트 12~14: 프로모션 기물 종류 (PieceType 순서, 0이면 프로모션 아님)
+// 비트 15~18: 잡기 / 앙파상 / 캐슬링 / 폰 두 칸 전진 표시
+final class PackedMove {
+    //이동 없음 (출발지와 목적지가 같은 이동은 존재하지 않으므로 0을 사용)
+    static final int NONE = 0;
+
+    static final int CAPTURE = 1 << 15;
+    static final int EN_PASSANT = 1 << 16;
+    static final int CASTLE = 1 << 17;
+    static final int DOUBLE_PUSH = 1 << 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private PackedMove(){
+    }
+
+    static int of(int from, int to, int flags){
+        return from | (to << TO_SHIFT) | flags;
+    }
+
+    static int of(int from, int to, int flags, PieceType promotion){
+        return of(from, to, flags) | (promotion.ordinal() << PROMOTION_SHIFT);
+    }
+
+    //Move 객체를 출발지, 목적지만 담긴 int 로 변환
+    static int of(Move move){
+        return of(move.from().index(), move.to().index(), 0);
+    }
+
+    static int from(int move){
+        return move & SQUARE_MASK;
+    }
+
+    static int to(int move){
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    //프로모션 기물 종류 (프로모션이 아니면 null)
+    static PieceType promotion(int move){
+        int type = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return (type == 0) ? null : TYPES[type];
+    }
+
+    static boolean isPromotion(int move){
+        return ((move >>> PROMOTION_SHIFT) & PROMOTION_MASK) != 0;
+    }
+
+    static boolean isCapture(int move){
+        return (move & CAPTURE) != 0;
+    }
+
+    static boolean isEnPassant(int move){
+        return (move & EN_PASSANT) != 0;
+    }
+
+    static boolean isCastle(int move){
+        return (move & CASTLE) != 0;
+    }
+
+    static boolean isDoublePush(int move){
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    //출발지와 목적지만 같은지 비교 (프로모션, 표시 비트 무시)
+    static boolean sameSquares(int a, int b){
+        return (a & 0xFFF) == (b & 0xFFF);
+    }
+
+    //API 경계(Player 입력 비교 등)에서만 사용하는 Move 객체 변환
+    static Move toMove(int move){
+        return new Move(Position.ofIndex(from(move)), Position.ofIndex(to(move)));
+    }
+
+    //UCI 좌표 표기 (예: e2e4, e7e8q), FEN 과 같이 y = 0 이 8번 랭크
+    static String toUci(int move){
+        StringBuilder sb = new StringBuilder(5);
+        appendSquare(sb, from(move));
+        appendSquare(sb, to(move));
+        PieceType promotion = promotion(move);
+        if(promotion != null){
+            sb.append("nbrq".charAt(promotion.ordinal() - PieceType.KNIGHT.ordinal()));
+        }
+        return sb.toString();
+    }
+
+    //UCI 표기와 같은 합법 수를 찾음 (없으면 NONE, 프로모션 문자가 없으면 퀸으로 봄)
+    static int findUci(MoveList legalMoves, String uci){
+        String text = uci.trim().toLowerCase();
+        if(text.length() == 4){
+            for(int i = 0; i < legalMoves.size(); i++){
+                int move = legalMoves.get(i);
+                if(toUci(move).equals(text + "q")){
+                    return move;
+                }
+            }
+        }
+        for(int i = 0; i < legalMoves.size(); i++){
+            int move = legalMoves.get(i);
+            if(toUci(move).equals(text)){
+                return move;
+            }
+        }
+        return NONE;
+    }
+
+    static void appendSquare(StringBuilder sb, int square){
+        sb.append((char) ('a' + square % 8));
+        sb.append((char) ('8' - square / 8));
+    }
+
+    static String toString(int move){
+        if(move == NONE){
+            return "NONE";
+        }
+        String text = "(" + (from(move) / 8) + "," + (from(move) % 8) + ")->("
+                + (to(move) / 8) + "," + (to(move) % 8) + ")";
+        PieceType promotion = promotion(move);
+        return (promotion == null) ? text : text + "=" + promotion;
+    }
+}
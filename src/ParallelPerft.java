@@ -0,0 +1,259 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+//Perft 를 ForkJoinPool 로 나누어 세는 병렬 버전
+//루트부터 splitDepth 수까지는 수마다 보드를 복사해 작업으로 나누고(작업 훔치기로 코어에 분배),
+//그보다 깊은 부분은 작업마다 자기 보드 하나로 makeMove / unmakeMove 하며 순차로 셈
+//선택적으로 (국면 키, 남은 깊이) 별 노드 수를 공유 표에 기억해 같은 국면이 다시 나오면 세지 않음
+//사용법: java ParallelPerft <깊이> [FEN] [--threads N] [--split N] [--memo MB] [--scaling]
+final class ParallelPerft {
+    //기본 분할 깊이 (시작 국면 기준 약 400개 작업, 스레드 수보다 충분히 많아 부하가 고르게 나뉨)
+    static final int DEFAULT_SPLIT_DEPTH = 2;
+    //이보다 얕은 남은 깊이는 기억하지 않음 (세는 비용이 표 조회와 비슷함)
+    private static final int MIN_MEMO_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    //(검증값, 노드 수) 쌍의 배열. 검증값은 키 ^ 노드 수로 저장해 다른 스레드와 겹쳐 쓴 항목을 걸러냄
+    //(TranspositionTable 과 같은 방식, 기억하지 않으면 null)
+    private final long[] memo;
+    private final int memoMask;
+    private final LongAdder memoHits = new LongAdder();
+
+    ParallelPerft(int threads, int splitDepth, int memoMegabytes){
+        this.pool = new ForkJoinPool(threads);
+        this.splitDepth = splitDepth;
+        if(memoMegabytes > 0){
+            //항목 하나가 16바이트, 개수는 2의 거듭제곱으로 맞춤
+            long entries = Long.highestOneBit(memoMegabytes * 1024L * 1024L / 16);
+            this.memo = new long[(int) entries * 2];
+            this.memoMask = (int) entries - 1;
+        }
+        else{
+            this.memo = null;
+            this.memoMask = 0;
+        }
+    }
+
+    //depth 수 뒤의 말단 노드 수 (넘겨받은 보드는 바꾸지 않음)
+    long perft(Board board, int depth){
+        if(depth == 0){
+            return 1;
+        }
+        return pool.invoke(new Node(board.copy(), depth, 0));
+    }
+
+    long getMemoHits(){
+        return memoHits.sum();
+    }
+
+    void clearMemo(){
+        if(memo != null){
+            Arrays.fill(memo, 0L);
+        }
+        memoHits.reset();
+    }
+
+    void shutdown(){
+        pool.shutdown();
+    }
+
+    //남은 깊이를 키에 섞어 같은 국면의 다른 깊이가 서로 다른 항목이 되게 함
+    private static long memoKey(long zobristKey, int depth){
+        return zobristKey ^ (depth * 0x9E3779B97F4A7C15L);
+    }
+
+    //기억한 노드 수 (없으면 -1)
+    private long probe(long key){
+        int index = ((int) key & memoMask) << 1;
+        long count = memo[index + 1];
+        if((memo[index] ^ count) == key && count != 0){
+            memoHits.increment();
+            return count;
+        }
+        return -1;
+    }
+
+    private void store(long key, long count){
+        int index = ((int) key & memoMask) << 1;
+        memo[index] = key ^ count;
+        memo[index + 1] = count;
+    }
+
+    //분할 구간의 노드 하나 (자기 보드를 가짐)
+    //ForkJoinTask 가 Serializable 이지만 작업을 직렬화하지 않으므로 경고를 끔
+    @SuppressWarnings("serial")
+    private final class Node extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+        private final int ply;
+
+        Node(Board board, int depth, int ply){
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute(){
+            if(ply >= splitDepth || depth <= 1){
+                return new Counter(board).count(depth);
+            }
+            long key = memoKey(board.getZobristKey(), depth);
+            if(memo != null){
+                long cached = probe(key);
+                if(cached >= 0){
+                    return cached;
+                }
+            }
+
+            MoveList moves = new MoveList();
+            new MoveGenerator(board).generateLegalMoves(moves);
+            Node[] children = new Node[moves.size()];
+            for(int i = 0; i < moves.size(); i++){
+                Board child = board.copy();
+                child.makeMove(moves.get(i));
+                children[i] = new Node(child, depth - 1, ply + 1);
+            }
+            invokeAll(children);
+            long nodes = 0;
+            for(int i = 0; i < children.length; i++){
+                nodes += children[i].join();
+            }
+            if(memo != null){
+                store(key, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    //분할 깊이 아래를 순차로 세는 부분 (Perft.count 와 같은 방식에 기억 표만 더함)
+    private final class Counter {
+        private final Board board;
+        private final MoveGenerator generator;
+
+        Counter(Board board){
+            this.board = board;
+            this.generator = new MoveGenerator(board);
+        }
+
+        //깊이별 수 목록은 처음 내려갈 때 만들고 같은 깊이에서 다시 씀
+        long count(int depth){
+            return count(depth, new MoveList[depth + 1]);
+        }
+
+        private long count(int depth, MoveList[] lists){
+            if(depth == 0){
+                return 1;
+            }
+            boolean useMemo = memo != null && depth >= MIN_MEMO_DEPTH;
+            long key = 0;
+            if(useMemo){
+                key = memoKey(board.getZobristKey(), depth);
+                long cached = probe(key);
+                if(cached >= 0){
+                    return cached;
+                }
+            }
+
+            if(lists[depth] == null){
+                lists[depth] = new MoveList();
+            }
+            MoveList moves = lists[depth];
+            moves.clear();
+            generator.generateLegalMoves(moves);
+            //마지막 깊이는 수를 두지 않고 개수만 셈
+            if(depth == 1){
+                return moves.size();
+            }
+
+            long nodes = 0;
+            for(int i = 0; i < moves.size(); i++){
+                UndoInfo undo = board.makeMove(moves.get(i));
+                nodes += count(depth - 1, lists);
+                board.unmakeMove(undo);
+            }
+            if(useMemo){
+                store(key, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    public static void main(String[] args){
+        if(args.length < 1){
+            System.out.println("사용법: java ParallelPerft <깊이> [FEN] [--threads N] [--split N] [--memo MB] [--scaling]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = Fen.START_POSITION;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int split = DEFAULT_SPLIT_DEPTH;
+        int memoMegabytes = 0;
+        boolean scaling = false;
+        for(int i = 1; i < args.length; i++){
+            switch (args[i]){
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--split": split = Integer.parseInt(args[++i]); break;
+                case "--memo": memoMegabytes = Integer.parseInt(args[++i]); break;
+                case "--scaling": scaling = true; break;
+                default: fen = args[i];
+            }
+        }
+
+        Board board = Fen.parse(fen);
+        System.out.println("FEN: " + fen);
+        if(!scaling){
+            run(board, depth, threads, split, memoMegabytes);
+            return;
+        }
+
+        //첫 측정이 JIT 컴파일 시간까지 떠안지 않도록 한 단계 얕게 미리 돌림
+        ParallelPerft warmup = new ParallelPerft(threads, split, 0);
+        warmup.perft(board, Math.max(1, depth - 1));
+        warmup.shutdown();
+
+        //1, 2, 4, ... 스레드로 같은 깊이를 세어 1스레드 대비 속도 향상과 효율(향상 / 스레드 수)을 출력
+        System.out.println("스레드      노드 수        시간(ms)    초당 노드    향상   효율");
+        double baseSeconds = 0;
+        long expected = -1;
+        for(int n = 1; ; n *= 2){
+            int t = Math.min(n, threads);
+            ParallelPerft perft = new ParallelPerft(t, split, memoMegabytes);
+            long start = System.nanoTime();
+            long nodes = perft.perft(board, depth);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            perft.shutdown();
+            if(expected < 0){
+                expected = nodes;
+                baseSeconds = seconds;
+            }
+            else if(nodes != expected){
+                throw new IllegalStateException(t + " 스레드 결과가 다릅니다: " + nodes + " != " + expected);
+            }
+            double speedup = baseSeconds / seconds;
+            System.out.printf(Locale.ROOT, "%6d %14d %12.0f %12.0f %7.2f %6.1f%%%n",
+                    t, nodes, seconds * 1000, nodes / Math.max(seconds, 1e-9), speedup, 100 * speedup / t);
+            if(t == threads){
+                break;
+            }
+        }
+    }
+
+    private static void run(Board board, int depth, int threads, int split, int memoMegabytes){
+        ParallelPerft perft = new ParallelPerft(threads, split, memoMegabytes);
+        long start = System.nanoTime();
+        long nodes = perft.perft(board, depth);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        perft.shutdown();
+        System.out.println("깊이 " + depth + " 노드 수: " + nodes);
+        if(memoMegabytes > 0){
+            System.out.println("기억 표 적중: " + perft.getMemoHits());
+        }
+        System.out.printf(Locale.ROOT, "스레드: %d, 시간: %.3f초, 초당 노드: %.0f%n",
+                threads, seconds, nodes / Math.max(seconds, 1e-9));
+    }
+}
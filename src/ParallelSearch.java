@@ -0,0 +1,158 @@
+import java.util.Locale;
+
+//Lazy SMP 병렬 탐색
+//스레드마다 보드 복사본과 Search 를 따로 두고 치환표 하나만 공유함 (Board 와 Piece 는 스레드 간에 공유하지 않음)
+//주 스레드의 결과를 최종 수로 쓰고, 보조 스레드는 치환표를 채워 주 스레드의 가지치기를 도움
+//사용법: java ParallelSearch [--depth N] [--threads N] [--hash MB] [--policy depth-preferred|always-replace] [FEN]
+//스레드 수마다 치환표 적중률, 충돌률, 점유율(hashfull)도 출력하므로 교체 정책끼리 비교할 수 있음
+final class ParallelSearch {
+    //깊이만으로 끝낼 때 쓰는 시간 예산 (하루)
+    static final long NO_TIME_LIMIT = 24L * 60 * 60 * 1000;
+
+    private final Board board;
+    private final int threadCount;
+    private final TranspositionTable table;
+    private Tablebases tablebases;
+
+    //마지막 탐색 결과
+    private long nodes;
+    //모든 스레드의 치환표 통계 합 (스레드마다 따로 센 것을 탐색이 끝난 뒤 더함)
+    private final TranspositionTable.Stats tableStats = new TranspositionTable.Stats();
+    private int bestScore;
+    private int completedDepth;
+
+    ParallelSearch(Board board, int threadCount, TranspositionTable table){
+        if(threadCount < 1){
+            throw new IllegalArgumentException("스레드 수는 1 이상이어야 합니다: " + threadCount);
+        }
+        this.board = board;
+        this.threadCount = threadCount;
+        this.table = table;
+    }
+
+    //모든 스레드의 탐색이 엔드게임 테이블을 찾게 함
+    void setTablebases(Tablebases tablebases){
+        this.tablebases = tablebases;
+    }
+
+    //모든 스레드로 탐색하고 주 스레드가 고른 수를 반환 (board 는 바뀌지 않음)
+    int search(long timeMillis, int maxDepth){
+        //복사는 시작 전에 호출한 스레드에서 모두 끝냄
+        //복사본에는 되돌리기 기록이 없으므로 반복 국면 판정용 게임 기록은 원본에서 받아 넘김 (읽기만 하므로 공유)
+        long[] history = board.getPositionHistory();
+        Search main = new Search(board.copy(), table);
+        Search[] helpers = new Search[threadCount - 1];
+        Thread[] threads = new Thread[threadCount - 1];
+        for(int i = 0; i < helpers.length; i++){
+            helpers[i] = new Search(board.copy(), table);
+            helpers[i].setTablebases(tablebases);
+            helpers[i].setHistory(history);
+        }
+        main.setTablebases(tablebases);
+        main.setHistory(history);
+
+        //치환표 세대는 여기서 한 번만 올리고, 모든 스레드는 searchHelper 로 시작
+        table.newSearch();
+        for(int i = 0; i < helpers.length; i++){
+            Search helper = helpers[i];
+            //홀수 번째 보조 스레드는 한 깊이 앞에서 시작
+            int startDepth = 1 + ((i + 1) & 1);
+            threads[i] = new Thread(() -> helper.searchHelper(timeMillis, maxDepth, startDepth), "search-helper-" + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        int bestMove = main.searchHelper(timeMillis, maxDepth, 1);
+
+        //주 스레드가 끝나면 보조 스레드도 멈춤
+        for(int i = 0; i < helpers.length; i++){
+            helpers[i].stop();
+        }
+        long total = main.getNodes();
+        tableStats.clear();
+        tableStats.add(main.getTableStats());
+        for(int i = 0; i < threads.length; i++){
+            try{
+                threads[i].join();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+            total += helpers[i].getNodes();
+            tableStats.add(helpers[i].getTableStats());
+        }
+
+        this.nodes = total;
+        this.bestScore = main.getBestScore();
+        this.completedDepth = main.getCompletedDepth();
+        return bestMove;
+    }
+
+    //모든 스레드의 노드 수 합
+    long getNodes(){
+        return nodes;
+    }
+
+    TranspositionTable.Stats getTableStats(){
+        return tableStats;
+    }
+
+    int getBestScore(){
+        return bestScore;
+    }
+
+    int getCompletedDepth(){
+        return completedDepth;
+    }
+
+    int getThreadCount(){
+        return threadCount;
+    }
+
+    //스레드 수를 1, 2, 4, ... 로 늘려 가며 같은 깊이까지의 시간과 노드 수를 비교
+    public static void main(String[] args){
+        int depth = 7;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = 64;
+        TranspositionTable.ReplacementPolicy policy = TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+        String fen = Benchmark.POSITIONS[1][1];
+        for(int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--threads": maxThreads = Integer.parseInt(args[++i]); break;
+                case "--hash": hashMegabytes = Integer.parseInt(args[++i]); break;
+                case "--policy": policy = TranspositionTable.ReplacementPolicy.parse(args[++i]); break;
+                default: fen = args[i]; break;
+            }
+        }
+
+        System.out.println("FEN: " + fen);
+        System.out.println("깊이 " + depth + ", 치환표 " + hashMegabytes + "MB (" + policy + "), 코어 " + Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "%8s %6s %12s %10s %12s %10s %8s %7s %7s %7s%n",
+                "threads", "move", "nodes", "ms", "nps", "speedup", "nps x", "hit%", "coll%", "full%");
+
+        double baseMillis = 0;
+        double baseNps = 0;
+        for(int n = 1; ; n *= 2){
+            int threads = Math.min(n, maxThreads);
+            //스레드 수마다 빈 치환표로 시작해야 비교가 공정함
+            TranspositionTable table = new TranspositionTable(hashMegabytes, policy);
+            ParallelSearch search = new ParallelSearch(Fen.parse(fen), threads, table);
+            long start = System.nanoTime();
+            int move = search.search(NO_TIME_LIMIT, depth);
+            double millis = (System.nanoTime() - start) / 1e6;
+            double nps = search.getNodes() / Math.max(millis / 1000, 1e-9);
+            if(threads == 1){
+                baseMillis = millis;
+                baseNps = nps;
+            }
+            TranspositionTable.Stats stats = search.getTableStats();
+            System.out.printf(Locale.ROOT, "%8d %6s %12d %10.0f %12.0f %10.2f %8.2f %7.1f %7.1f %7.1f%n",
+                    threads, PackedMove.toUci(move), search.getNodes(), millis, nps, baseMillis / millis, nps / baseNps,
+                    100.0 * stats.hitRate(), 100.0 * stats.collisionRate(), table.getHashfull() / 10.0);
+            if(threads == maxThreads){
+                break;
+            }
+        }
+    }
+}
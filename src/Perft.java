@@ -0,0 +1,190 @@
+//합법 수 생성의 정확도와 속도를 재는 perft 도구
+//주어진 깊이까지의 말단 노드 수를 세고, 알려진 값과 비교하여 규칙 구현을 검증함
+//사용법: java Perft <깊이> [FEN] [--divide] [--stats]
+final class Perft {
+    private final Board board;
+    private final MoveGenerator generator;
+    //깊이별 수 목록 (재귀 중 할당하지 않도록 미리 생성)
+    private MoveList[] moveLists;
+    private final boolean collectStats;
+
+    //말단 수의 종류별 개수 (collectStats 일 때만 계산)
+    private long captures;
+    private long enPassants;
+    private long castles;
+    private long promotions;
+    private long checks;
+
+    Perft(Board board, boolean collectStats){
+        this.board = board;
+        this.generator = new MoveGenerator(board);
+        this.moveLists = new MoveList[0];
+        this.collectStats = collectStats;
+    }
+
+    //depth 수 뒤의 말단 노드 수
+    long perft(int depth){
+        ensureDepth(depth);
+        resetStats();
+        return count(depth);
+    }
+
+    //첫 수별 노드 수를 출력하고 전체 합을 반환
+    long divide(int depth, StringBuilder out){
+        ensureDepth(depth);
+        resetStats();
+        if(depth == 0){
+            return 1;
+        }
+        MoveList rootMoves = new MoveList();
+        generator.generateLegalMoves(rootMoves);
+        long total = 0;
+        for(int i = 0; i < rootMoves.size(); i++){
+            int move = rootMoves.get(i);
+            long nodes;
+            if(depth == 1){
+                countLeaf(move);
+                nodes = 1;
+            }
+            else{
+                UndoInfo undo = board.makeMove(move);
+                nodes = count(depth - 1);
+                board.unmakeMove(undo);
+            }
+            out.append(PackedMove.toUci(move)).append(": ").append(nodes).append('\n');
+            total += nodes;
+        }
+        return total;
+    }
+
+    private long count(int depth){
+        if(depth == 0){
+            return 1;
+        }
+        MoveList moves = moveLists[depth];
+        moves.clear();
+        generator.generateLegalMoves(moves);
+
+        //통계가 필요 없으면 마지막 깊이는 수를 두지 않고 개수만 셈
+        if(depth == 1 && !collectStats){
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            if(depth == 1){
+                countLeaf(move);
+                nodes++;
+                continue;
+            }
+            UndoInfo undo = board.makeMove(move);
+            nodes += count(depth - 1);
+            board.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    //말단 수의 종류 집계 (체크 여부는 실제로 두어 확인)
+    private void countLeaf(int move){
+        if(!collectStats){
+            return;
+        }
+        if(PackedMove.isCapture(move)) captures++;
+        if(PackedMove.isEnPassant(move)) enPassants++;
+        if(PackedMove.isCastle(move)) castles++;
+        if(PackedMove.isPromotion(move)) promotions++;
+
+        UndoInfo undo = board.makeMove(move);
+        if(generator.isKingInCheck(board.getSideToMove())){
+            checks++;
+        }
+        board.unmakeMove(undo);
+    }
+
+    private void ensureDepth(int depth){
+        if(moveLists.length <= depth){
+            MoveList[] bigger = new MoveList[depth + 1];
+            for(int i = 0; i < bigger.length; i++){
+                bigger[i] = (i < moveLists.length) ? moveLists[i] : new MoveList();
+            }
+            moveLists = bigger;
+        }
+    }
+
+    private void resetStats(){
+        captures = 0;
+        enPassants = 0;
+        castles = 0;
+        promotions = 0;
+        checks = 0;
+    }
+
+    long getCaptures(){
+        return captures;
+    }
+
+    long getEnPassants(){
+        return enPassants;
+    }
+
+    long getCastles(){
+        return castles;
+    }
+
+    long getPromotions(){
+        return promotions;
+    }
+
+    long getChecks(){
+        return checks;
+    }
+
+    public static void main(String[] args){
+        if(args.length < 1){
+            System.out.println("사용법: java Perft <깊이> [FEN] [--divide] [--stats]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = Fen.START_POSITION;
+        boolean divide = false;
+        boolean stats = false;
+        for(int i = 1; i < args.length; i++){
+            if(args[i].equals("--divide")){
+                divide = true;
+            }
+            else if(args[i].equals("--stats")){
+                stats = true;
+            }
+            else{
+                fen = args[i];
+            }
+        }
+
+        Perft perft = new Perft(Fen.parse(fen), stats);
+        System.out.println("FEN: " + fen);
+
+        long start = System.nanoTime();
+        long nodes;
+        if(divide){
+            StringBuilder out = new StringBuilder();
+            nodes = perft.divide(depth, out);
+            System.out.print(out);
+        }
+        else{
+            nodes = perft.perft(depth);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("깊이 " + depth + " 노드 수: " + nodes);
+        if(stats){
+            System.out.println("잡기: " + perft.getCaptures()
+                    + ", 앙파상: " + perft.getEnPassants()
+                    + ", 캐슬링: " + perft.getCastles()
+                    + ", 프로모션: " + perft.getPromotions()
+                    + ", 체크: " + perft.getChecks());
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("시간: %.3f초, 초당 노드: %.0f%n", seconds, nodes / Math.max(seconds, 1e-9));
+    }
+}
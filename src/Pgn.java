@@ -0,0 +1,283 @@
+//PGN 기록 작성과 SAN 표기 변환 (읽기는 PgnReader)
+final class Pgn {
+    //한 줄 최대 길이 (PGN 권장값)
+    private static final int LINE_LENGTH = 80;
+
+    private Pgn(){
+    }
+
+    //board 국면에서 move 를 SAN 으로 변환 (예: Nbd7, exd6, O-O, e8=Q+)
+    //board 는 잠시 수를 두었다 되돌리므로 끝나면 원래 국면 그대로임
+    static String toSan(Board board, MoveGenerator generator, int move){
+        StringBuilder sb = new StringBuilder(8);
+        appendSan(sb, board, generator, move, new MoveList());
+        return sb.toString();
+    }
+
+    //legalMoves 는 작업용 버퍼 (board 국면의 합법 수로 채워 사용)
+    static void appendSan(StringBuilder sb, Board board, MoveGenerator generator, int move, MoveList legalMoves){
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        Piece piece = board.getPieceAt(from);
+
+        if(PackedMove.isCastle(move)){
+            sb.append((to % Board.BOARD_SIZE > from % Board.BOARD_SIZE) ? "O-O" : "O-O-O");
+        }
+        else if(piece.getType() == PieceType.PAWN){
+            if(PackedMove.isCapture(move)){
+                sb.append((char) ('a' + from % Board.BOARD_SIZE)).append('x');
+            }
+            PackedMove.appendSquare(sb, to);
+            if(PackedMove.isPromotion(move)){
+                sb.append('=').append("PNBRQK".charAt(PackedMove.promotion(move).ordinal()));
+            }
+        }
+        else{
+            sb.append("PNBRQK".charAt(piece.getType().ordinal()));
+            appendDisambiguation(sb, board, generator, move, piece, legalMoves);
+            if(PackedMove.isCapture(move)){
+                sb.append('x');
+            }
+            PackedMove.appendSquare(sb, to);
+        }
+
+        //체크(+) / 체크메이트(#) 표시
+        UndoInfo undo = board.makeMove(move);
+        Color opponent = board.getSideToMove();
+        if(generator.isKingInCheck(opponent)){
+            sb.append(generator.hasAnyLegalMoves(opponent) ? '+' : '#');
+        }
+        board.unmakeMove(undo);
+    }
+
+    //같은 종류의 다른 기물도 같은 칸으로 갈 수 있으면 출발 파일, 랭크, 또는 둘 다 표시
+    private static void appendDisambiguation(StringBuilder sb, Board board, MoveGenerator generator,
+                                             int move, Piece piece, MoveList legalMoves){
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        legalMoves.clear();
+        generator.generateLegalMoves(legalMoves);
+
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for(int i = 0; i < legalMoves.size(); i++){
+            int other = legalMoves.get(i);
+            int otherFrom = PackedMove.from(other);
+            if(otherFrom == from || PackedMove.to(other) != to){
+                continue;
+            }
+            if(board.getPieceAt(otherFrom).getType() != piece.getType()){
+                continue;
+            }
+            ambiguous = true;
+            if(otherFrom % Board.BOARD_SIZE == from % Board.BOARD_SIZE) sameFile = true;
+            if(otherFrom / Board.BOARD_SIZE == from / Board.BOARD_SIZE) sameRank = true;
+        }
+        if(!ambiguous){
+            return;
+        }
+        if(!sameFile){
+            sb.append((char) ('a' + from % Board.BOARD_SIZE));
+        }
+        else if(!sameRank){
+            sb.append((char) ('8' - from / Board.BOARD_SIZE));
+        }
+        else{
+            PackedMove.appendSquare(sb, from);
+        }
+    }
+
+    //SAN 한 수를 board 국면의 합법 수에서 찾음 (없거나 둘 이상이면 PackedMove.NONE)
+    //legalMoves 는 board 국면의 합법 수로 채워져 있어야 함
+    //+, #, !, ? 표시는 무시하고, 0-0 / 0-0-0 표기와 = 없는 프로모션(e8Q)도 받음
+    //프로모션 기물이 없으면 퀸으로 봄
+    static int parseSan(Board board, MoveList legalMoves, String san){
+        int end = san.length();
+        while(end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0){
+            end--;
+        }
+        if(end < 2){
+            return PackedMove.NONE;
+        }
+        if(isCastling(san, end, 3)){
+            return findCastling(board, legalMoves, true);
+        }
+        if(isCastling(san, end, 5)){
+            return findCastling(board, legalMoves, false);
+        }
+
+        //프로모션 (e8=Q, e8Q)
+        PieceType promotion = null;
+        char last = san.charAt(end - 1);
+        if("NBRQ".indexOf(last) >= 0){
+            promotion = Fen.pieceType(last);
+            end--;
+            if(end > 0 && san.charAt(end - 1) == '='){
+                end--;
+            }
+        }
+        if(end < 2){
+            return PackedMove.NONE;
+        }
+
+        //도착 칸은 마지막 두 글자
+        int toFile = san.charAt(end - 2) - 'a';
+        int toRank = san.charAt(end - 1) - '1';
+        if(toFile < 0 || toFile >= Board.BOARD_SIZE || toRank < 0 || toRank >= Board.BOARD_SIZE){
+            return PackedMove.NONE;
+        }
+        int to = (Board.BOARD_SIZE - 1 - toRank) * Board.BOARD_SIZE + toFile;
+
+        //기물 문자와 출발 칸 구분 (파일, 랭크, 또는 둘 다)
+        int start = 0;
+        PieceType type = PieceType.PAWN;
+        if("NBRQK".indexOf(san.charAt(0)) >= 0){
+            type = Fen.pieceType(san.charAt(0));
+            start = 1;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for(int i = start; i < end - 2; i++){
+            char c = san.charAt(i);
+            if(c >= 'a' && c <= 'h'){
+                fromFile = c - 'a';
+            }
+            else if(c >= '1' && c <= '8'){
+                fromRank = c - '1';
+            }
+            else if(c != 'x' && c != '-' && c != ':'){
+                return PackedMove.NONE;
+            }
+        }
+        if(promotion == null && type == PieceType.PAWN && (toRank == 0 || toRank == Board.BOARD_SIZE - 1)){
+            promotion = PieceType.QUEEN;
+        }
+
+        int found = PackedMove.NONE;
+        for(int i = 0; i < legalMoves.size(); i++){
+            int move = legalMoves.get(i);
+            if(PackedMove.to(move) != to || PackedMove.isCastle(move)){
+                continue;
+            }
+            int from = PackedMove.from(move);
+            if(board.getPieceAt(from).getType() != type){
+                continue;
+            }
+            if(fromFile >= 0 && from % Board.BOARD_SIZE != fromFile){
+                continue;
+            }
+            if(fromRank >= 0 && Board.BOARD_SIZE - 1 - from / Board.BOARD_SIZE != fromRank){
+                continue;
+            }
+            if(PackedMove.promotion(move) != promotion){
+                continue;
+            }
+            if(found != PackedMove.NONE){
+                return PackedMove.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    //san 의 앞 length 글자가 O-O(O-O-O) 또는 0-0(0-0-0) 인지
+    private static boolean isCastling(String san, int end, int length){
+        if(end != length){
+            return false;
+        }
+        for(int i = 0; i < length; i++){
+            char c = san.charAt(i);
+            boolean ok = (i % 2 == 1) ? c == '-' : (c == 'O' || c == '0');
+            if(!ok){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findCastling(Board board, MoveList legalMoves, boolean kingside){
+        for(int i = 0; i < legalMoves.size(); i++){
+            int move = legalMoves.get(i);
+            if(!PackedMove.isCastle(move)){
+                continue;
+            }
+            boolean toKingside = PackedMove.to(move) % Board.BOARD_SIZE > PackedMove.from(move) % Board.BOARD_SIZE;
+            if(toKingside == kingside){
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    //대국 기록 하나를 PGN 으로 작성
+    static void write(StringBuilder out, GameRecord record, String event, int round, String date){
+        appendTag(out, "Event", event);
+        appendTag(out, "Site", "?");
+        appendTag(out, "Date", date);
+        appendTag(out, "Round", Integer.toString(round));
+        appendTag(out, "White", record.white);
+        appendTag(out, "Black", record.black);
+        appendTag(out, "Result", record.result);
+        if(!record.startFen.equals(Fen.START_POSITION)){
+            appendTag(out, "SetUp", "1");
+            appendTag(out, "FEN", record.startFen);
+        }
+        appendTag(out, "PlyCount", Integer.toString(record.getPlyCount()));
+        appendTag(out, "Termination", terminationTag(record.termination));
+        out.append('\n');
+
+        //시작 국면에서 다시 두면서 SAN 으로 변환
+        Board board = Fen.parse(record.startFen);
+        MoveGenerator generator = new MoveGenerator(board);
+        MoveList buffer = new MoveList();
+        StringBuilder token = new StringBuilder(16);
+        int lineLength = 0;
+        for(int i = 0; i < record.moves.length; i++){
+            token.setLength(0);
+            if(board.getSideToMove() == Color.WHITE){
+                token.append(board.getFullmoveNumber()).append(". ");
+            }
+            else if(i == 0){
+                token.append(board.getFullmoveNumber()).append("... ");
+            }
+            appendSan(token, board, generator, record.moves[i], buffer);
+            board.makeMove(record.moves[i]);
+            lineLength = appendToken(out, token, lineLength);
+        }
+        token.setLength(0);
+        token.append(record.result);
+        appendToken(out, token, lineLength);
+        out.append("\n\n");
+    }
+
+    //줄 길이를 넘으면 줄을 바꾸어 토큰 추가, 새 줄 길이 반환
+    private static int appendToken(StringBuilder out, CharSequence token, int lineLength){
+        if(lineLength > 0 && lineLength + 1 + token.length() > LINE_LENGTH){
+            out.append('\n');
+            lineLength = 0;
+        }
+        else if(lineLength > 0){
+            out.append(' ');
+            lineLength++;
+        }
+        out.append(token);
+        return lineLength + token.length();
+    }
+
+    private static void appendTag(StringBuilder out, String name, String value){
+        out.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\"]\n");
+    }
+
+    //PGN 표준 Termination 값 (규칙에 의한 종료는 normal)
+    private static String terminationTag(GameRecord.Termination termination){
+        switch (termination){
+            case MOVE_LIMIT:
+            case TABLEBASE: return "adjudication";
+            case ILLEGAL_MOVE: return "rules infraction";
+            default: return "normal";
+        }
+    }
+}
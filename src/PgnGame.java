@@ -0,0 +1,27 @@
+import java.util.List;
+import java.util.Map;
+
+//PgnReader 가 읽은 대국 하나 (태그, SAN 수 목록, 결과)
+//수는 아직 보드에 두지 않은 문자열 그대로이며, 국면으로 바꾸는 일은 PgnReplayer 가 맡음
+final class PgnGame {
+    final Map<String, String> tags;
+    final List<String> moves;
+    //1-0, 0-1, 1/2-1/2, * (결과 토큰이 없으면 Result 태그, 그것도 없으면 *)
+    final String result;
+
+    PgnGame(Map<String, String> tags, List<String> moves, String result){
+        this.tags = tags;
+        this.moves = moves;
+        this.result = result;
+    }
+
+    String getTag(String name){
+        return tags.get(name);
+    }
+
+    //시작 국면 (FEN 태그가 없으면 표준 시작 국면)
+    String getStartFen(){
+        String fen = tags.get("FEN");
+        return (fen == null) ? Fen.START_POSITION : fen;
+    }
+}
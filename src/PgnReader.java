@@ -0,0 +1,287 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//PGN 파일을 대국 하나씩 읽는 스트리밍 파서
+//고정 크기 버퍼로 채널을 읽으므로 파일 크기와 관계없이 메모리는 버퍼와 대국 하나 분량만 씀
+//주석({..}, ;), 변화수(( .. ), 중첩 포함), NAG($n), 수 번호(12. / 12...), % 탈출 줄은 건너뜀
+//태그 값은 UTF-8 로, 나머지는 ASCII 로 읽음
+final class PgnReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int EOF = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final byte[] bytes = buffer.array();
+    private int position;
+    private int limit;
+    //한 글자 되돌리기 (없으면 -2)
+    private int pushback = -2;
+    //마지막으로 읽은 글자와 그 앞 글자 (줄 첫 글자의 % 판단용)
+    private int current = '\n';
+    private int previous = '\n';
+
+    //토큰과 태그 값을 모으는 작업 버퍼
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    //읽은 바이트 수 (진행률 표시용)
+    private long bytesRead;
+
+    PgnReader(ReadableByteChannel channel){
+        this.channel = channel;
+    }
+
+    static PgnReader open(Path path) throws IOException {
+        return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    long getBytesRead(){
+        return bytesRead;
+    }
+
+    //다음 대국 (파일 끝이면 null)
+    PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>(96);
+        String result = null;
+        boolean inMovetext = false;
+
+        while(true){
+            int c = read();
+            if(c == EOF){
+                break;
+            }
+            if(c == '%' && previous == '\n'){
+                skipLine();
+                continue;
+            }
+            if(isWhitespace(c)){
+                continue;
+            }
+            if(c == '['){
+                //수 목록 뒤에 태그가 나오면 결과 없이 다음 대국이 시작된 것
+                if(inMovetext){
+                    unread(c);
+                    break;
+                }
+                readTag(tags);
+                continue;
+            }
+            if(c == '{'){
+                skipUntil('}');
+                continue;
+            }
+            if(c == ';'){
+                skipLine();
+                continue;
+            }
+            if(c == '('){
+                skipVariation();
+                continue;
+            }
+            if(c == ')' || c == ']' || c == '}'){
+                continue;
+            }
+
+            readToken(c);
+            inMovetext = true;
+            if(isResult()){
+                result = tokenString(0);
+                break;
+            }
+            if(token[0] == '$'){
+                continue;
+            }
+            //앞의 수 번호(12. / 12...)를 떼어냄
+            int start = 0;
+            while(start < tokenLength && token[start] >= '0' && token[start] <= '9'){
+                start++;
+            }
+            if(start < tokenLength && token[start] == '.'){
+                while(start < tokenLength && token[start] == '.'){
+                    start++;
+                }
+            }
+            else{
+                //숫자로 시작하지만 점이 없으면 (0-0 등) 수 그대로
+                start = 0;
+            }
+            if(start < tokenLength){
+                moves.add(tokenString(start));
+            }
+        }
+
+        if(tags.isEmpty() && moves.isEmpty() && result == null){
+            return null;
+        }
+        if(result == null){
+            String tagResult = tags.get("Result");
+            result = (tagResult == null) ? "*" : tagResult;
+        }
+        return new PgnGame(tags, moves, result);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //[이름 "값"]
+    private void readTag(Map<String, String> tags) throws IOException {
+        int c = read();
+        while(isWhitespace(c)){
+            c = read();
+        }
+        tokenLength = 0;
+        while(c != EOF && !isWhitespace(c) && c != '"' && c != ']'){
+            append(c);
+            c = read();
+        }
+        String name = tokenString(0);
+        while(c != EOF && c != '"' && c != ']'){
+            c = read();
+        }
+        tokenLength = 0;
+        if(c == '"'){
+            c = read();
+            while(c != EOF && c != '"'){
+                if(c == '\\'){
+                    c = read();
+                    if(c == EOF){
+                        break;
+                    }
+                }
+                append(c);
+                c = read();
+            }
+            while(c != EOF && c != ']'){
+                c = read();
+            }
+        }
+        tags.put(name, new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+    }
+
+    //토큰 하나 (공백이나 구분 문자까지)
+    private void readToken(int first) throws IOException {
+        tokenLength = 0;
+        append(first);
+        while(true){
+            int c = read();
+            if(c == EOF){
+                return;
+            }
+            if(isWhitespace(c) || c == '[' || c == ']' || c == '{' || c == '}'
+                    || c == '(' || c == ')' || c == ';'){
+                unread(c);
+                return;
+            }
+            append(c);
+        }
+    }
+
+    private boolean isResult(){
+        return tokenIs("1-0") || tokenIs("0-1") || tokenIs("1/2-1/2") || tokenIs("*");
+    }
+
+    private boolean tokenIs(String s){
+        if(tokenLength != s.length()){
+            return false;
+        }
+        for(int i = 0; i < tokenLength; i++){
+            if(token[i] != s.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //괄호가 닫힐 때까지 건너뜀 (안쪽의 주석과 중첩 변화수 포함)
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while(depth > 0){
+            int c = read();
+            if(c == EOF){
+                return;
+            }
+            if(c == '('){
+                depth++;
+            }
+            else if(c == ')'){
+                depth--;
+            }
+            else if(c == '{'){
+                skipUntil('}');
+            }
+            else if(c == ';'){
+                skipLine();
+            }
+        }
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        do{
+            c = read();
+        } while(c != EOF && c != end);
+    }
+
+    private void skipLine() throws IOException {
+        skipUntil('\n');
+    }
+
+    private void append(int c){
+        if(tokenLength == token.length){
+            byte[] bigger = new byte[token.length * 2];
+            System.arraycopy(token, 0, bigger, 0, tokenLength);
+            token = bigger;
+        }
+        token[tokenLength++] = (byte) c;
+    }
+
+    private String tokenString(int start){
+        return new String(token, start, tokenLength - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isWhitespace(int c){
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private void unread(int c){
+        pushback = c;
+    }
+
+    private int read() throws IOException {
+        if(pushback != -2){
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        if(position == limit){
+            buffer.clear();
+            int n;
+            do{
+                n = channel.read(buffer);
+            } while(n == 0);
+            if(n < 0){
+                return EOF;
+            }
+            position = 0;
+            limit = n;
+            bytesRead += n;
+        }
+        int c = bytes[position++] & 0xFF;
+        previous = current;
+        current = c;
+        return c;
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+//PGN 대국을 보드에 다시 두어 국면을 재구성하는 대량 재생 도구
+//읽는 스레드 하나가 PgnReader 로 대국을 묶음 단위로 읽어 크기가 정해진 큐에 넣고, 작업 스레드들이 꺼내 각자의 보드에 둠
+//큐 크기가 정해져 있으므로 읽기가 앞서 나가도 메모리에 쌓이는 대국 수는 일정함
+//대국 하나에서 난 예외는 실패로 세고 넘어가며, 그래도 작업 스레드가 모두 죽으면 읽는 쪽이 큐에서 멈추지 않고 예외로 끝남
+//SAN 은 국면의 합법 수 중에서 찾으므로(Pgn.parseSan) 캐슬링, 앙파상, 프로모션이 Board.makeMove 로 그대로 처리됨
+//사용법: java PgnReplayer <파일.pgn> [--threads N]
+final class PgnReplayer {
+    //국면마다 불리는 콜백 (여러 작업 스레드에서 동시에 불리므로 스레드 안전해야 함)
+    interface PositionVisitor {
+        //ply 번째 수 move 를 둔 직후의 board
+        void visit(PgnGame game, Board board, int ply, int move);
+    }
+
+    //재생 통계 (작업 스레드마다 따로 모은 뒤 합침)
+    static final class Stats {
+        long games;
+        long plies;
+        long failed;
+        long whiteWins;
+        long blackWins;
+        long draws;
+        long unfinished;
+
+        void add(Stats other){
+            games += other.games;
+            plies += other.plies;
+            failed += other.failed;
+            whiteWins += other.whiteWins;
+            blackWins += other.blackWins;
+            draws += other.draws;
+            unfinished += other.unfinished;
+        }
+    }
+
+    //큐에 한 번에 넣는 대국 수 (스레드 간 전달 비용을 줄임)
+    private static final int BATCH_SIZE = 256;
+    //보관할 오류 메시지 수
+    private static final int MAX_ERRORS = 20;
+    //작업 끝 표시
+    private static final List<PgnGame> END = Collections.emptyList();
+    //큐가 찬 동안 작업 스레드가 살아 있는지 확인하는 간격
+    private static final long PUT_CHECK_MILLIS = 100;
+
+    private final int threadCount;
+    private final PositionVisitor visitor;
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    PgnReplayer(int threadCount, PositionVisitor visitor){
+        this.threadCount = threadCount;
+        this.visitor = visitor;
+    }
+
+    //reader 의 대국을 모두 재생
+    Stats run(PgnReader reader) throws IOException, InterruptedException {
+        BlockingQueue<List<PgnGame>> queue = new ArrayBlockingQueue<>(threadCount * 4);
+        Stats[] stats = new Stats[threadCount];
+        Thread[] workers = new Thread[threadCount];
+        for(int i = 0; i < threadCount; i++){
+            Stats workerStats = new Stats();
+            stats[i] = workerStats;
+            workers[i] = new Thread(() -> work(queue, workerStats), "pgn-replay-" + (i + 1));
+            //대국 단위로 잡지 못한 오류(Error 등)로 스레드가 끝나도 기록은 남김
+            workers[i].setUncaughtExceptionHandler((thread, e) -> errors.add(thread.getName() + " 종료: " + e));
+            workers[i].start();
+        }
+
+        try{
+            List<PgnGame> batch = new ArrayList<>(BATCH_SIZE);
+            PgnGame game;
+            while((game = reader.next()) != null){
+                batch.add(game);
+                if(batch.size() == BATCH_SIZE){
+                    put(queue, batch, workers);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if(!batch.isEmpty()){
+                put(queue, batch, workers);
+            }
+        } finally {
+            //작업 스레드가 모두 죽었으면 끝 표시를 받을 쪽이 없으므로 넣지 않음
+            for(int i = 0; i < threadCount && isAnyAlive(workers); i++){
+                offerWhileAlive(queue, END, workers);
+            }
+            for(int i = 0; i < threadCount; i++){
+                workers[i].join();
+            }
+        }
+
+        Stats total = new Stats();
+        for(int i = 0; i < threadCount; i++){
+            total.add(stats[i]);
+        }
+        return total;
+    }
+
+    List<String> getErrors(){
+        return errors;
+    }
+
+    //큐에 넣되, 큐가 찬 채로 작업 스레드가 모두 죽으면 IllegalStateException
+    private void put(BlockingQueue<List<PgnGame>> queue, List<PgnGame> batch, Thread[] workers) throws InterruptedException {
+        if(!offerWhileAlive(queue, batch, workers)){
+            throw new IllegalStateException("재생 작업 스레드가 모두 종료되었습니다: " + errors);
+        }
+    }
+
+    //넣었으면 true, 넣기 전에 작업 스레드가 모두 죽었으면 false
+    private static boolean offerWhileAlive(BlockingQueue<List<PgnGame>> queue, List<PgnGame> batch, Thread[] workers) throws InterruptedException {
+        while(!queue.offer(batch, PUT_CHECK_MILLIS, TimeUnit.MILLISECONDS)){
+            if(!isAnyAlive(workers)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAnyAlive(Thread[] workers){
+        for(int i = 0; i < workers.length; i++){
+            if(workers[i].isAlive()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void work(BlockingQueue<List<PgnGame>> queue, Stats stats){
+        MoveList legalMoves = new MoveList();
+        while(true){
+            List<PgnGame> batch;
+            try{
+                batch = queue.take();
+            } catch (InterruptedException e){
+                return;
+            }
+            if(batch == END){
+                return;
+            }
+            for(int i = 0; i < batch.size(); i++){
+                PgnGame game = batch.get(i);
+                stats.games++;
+                countResult(stats, game.result);
+                //잘못된 FEN 태그, visitor 의 예외 등 대국 하나의 문제로 작업 스레드가 죽지 않도록 모든 RuntimeException 을 실패로 셈
+                try{
+                    stats.plies += replay(game, legalMoves, visitor);
+                } catch (RuntimeException e){
+                    stats.failed++;
+                    if(errors.size() < MAX_ERRORS){
+                        errors.add(describe(game) + ": "
+                                + ((e instanceof IllegalArgumentException) ? e.getMessage() : e.toString()));
+                    }
+                }
+            }
+        }
+    }
+
+    //대국 하나를 시작 국면부터 다시 두고 둔 수의 개수를 반환
+    //SAN 을 해석할 수 없으면 IllegalArgumentException
+    static int replay(PgnGame game, MoveList legalMoves, PositionVisitor visitor){
+        Board board = Fen.parse(game.getStartFen());
+        MoveGenerator generator = new MoveGenerator(board);
+        for(int ply = 0; ply < game.moves.size(); ply++){
+            String san = game.moves.get(ply);
+            legalMoves.clear();
+            generator.generateLegalMoves(legalMoves);
+            int move = Pgn.parseSan(board, legalMoves, san);
+            if(move == PackedMove.NONE){
+                throw new IllegalArgumentException((ply / 2 + 1) + "수째 " + san + " 를 둘 수 없습니다");
+            }
+            board.makeMove(move);
+            if(visitor != null){
+                visitor.visit(game, board, ply, move);
+            }
+        }
+        return game.moves.size();
+    }
+
+    private static void countResult(Stats stats, String result){
+        switch (result){
+            case GameRecord.WHITE_WINS: stats.whiteWins++; break;
+            case GameRecord.BLACK_WINS: stats.blackWins++; break;
+            case GameRecord.DRAW: stats.draws++; break;
+            default: stats.unfinished++;
+        }
+    }
+
+    private static String describe(PgnGame game){
+        return game.getTag("White") + " - " + game.getTag("Black") + " (" + game.getTag("Round") + ")";
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length < 1){
+            System.out.println("사용법: java PgnReplayer <파일.pgn> [--threads N]");
+            return;
+        }
+        String path = args[0];
+        int threads = Runtime.getRuntime().availableProcessors();
+        for(int i = 1; i < args.length; i++){
+            switch (args[i]){
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("알 수 없는 옵션: " + args[i]);
+            }
+        }
+
+        PgnReplayer replayer = new PgnReplayer(threads, null);
+        long start = System.nanoTime();
+        Stats stats;
+        long bytes;
+        try(PgnReader reader = PgnReader.open(Paths.get(path))){
+            stats = replayer.run(reader);
+            bytes = reader.getBytesRead();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "대국 %d, 수 %d, 실패 %d (백 승 %d, 흑 승 %d, 무승부 %d, 미완료 %d)%n",
+                stats.games, stats.plies, stats.failed, stats.whiteWins, stats.blackWins, stats.draws, stats.unfinished);
+        System.out.printf(Locale.ROOT, "스레드: %d, 시간: %.3f초, 초당 대국: %.0f, 초당 수: %.0f, %.1f MB/s%n",
+                threads, seconds, stats.games / seconds, stats.plies / seconds, bytes / seconds / 1e6);
+        List<String> errors = replayer.getErrors();
+        for(int i = 0; i < errors.size(); i++){
+            System.out.println("오류: " + errors.get(i));
+        }
+    }
+}
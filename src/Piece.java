@@ -1,6 +1,11 @@
 import java.util.List;
 import java.util.ArrayList;
 
+//기물 종류 (비트보드 인덱스 계산에 사용, 순서 변경 금지)
+enum PieceType{
+    PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING;
+}
+
 abstract class Piece {
     protected Color color; //팀 색상
     protected Position position; // 현재 위치
@@ -13,7 +18,48 @@ abstract class Piece {
     }
 
     //기물마다 움직임이 다르니 각자 구현해야함 추상클래스 사용
-    public abstract List<Move> getValidMoves(Board board);
+    //현재 보드에서 이 기물이 공격하는 칸 (아군 칸 포함, 평가의 공격 지도에 그대로 사용)
+    public abstract long attacks(Board board);
+
+    //이동 가능한 칸 수 (목록을 만들지 않고 센 값, 캐슬링과 앙파상 제외)
+    public int mobility(Board board){
+        return Long.bitCount(attacks(board) & ~board.getColorOccupancy(color));
+    }
+
+    //이동 가능한 칸을 PackedMove 로 인코딩하여 버퍼에 추가 (버퍼는 비우지 않음)
+    public void generateMoves(Board board, MoveList moves){
+        addTargets(board, attacks(board), moves);
+    }
+
+    //잡기 수만 추가 (폰은 프로모션 포함, 앙파상은 MoveGenerator 에서 따로)
+    public void generateCaptures(Board board, MoveList moves){
+        addTargets(board, attacks(board) & board.getColorOccupancy(opponent()), moves);
+    }
+
+    //잡기가 아닌 수만 추가 (캐슬링은 MoveGenerator 에서 따로)
+    public void generateQuiets(Board board, MoveList moves){
+        addTargets(board, attacks(board) & ~board.getOccupancy(), moves);
+    }
+
+    //기물 종류 반환
+    public abstract PieceType getType();
+
+    //이동 가능한 칸을 Move 목록으로 반환 (입력 처리 등 API 경계에서만 사용)
+    //프로모션은 목적지당 하나의 Move 로 합쳐짐 (기물 선택은 Player.chooseMove 에서)
+    public List<Move> getValidMoves(Board board){
+        MoveList buffer = new MoveList();
+        generateMoves(board, buffer);
+
+        List<Move> moves = new ArrayList<>(buffer.size());
+        for(int i = 0; i < buffer.size(); i++){
+            int move = buffer.get(i);
+            if(PackedMove.isPromotion(move) && PackedMove.promotion(move) != PieceType.QUEEN){
+                continue;
+            }
+            moves.add(PackedMove.toMove(move));
+        }
+        return moves;
+    }
 
     public Color getColor(){
         return color;
@@ -30,215 +76,227 @@ abstract class Piece {
     public void setHasMoved(boolean hasMoved) {
         this.hasMoved = hasMoved;
     }
-    //이동 경로를 추가할때 사용
-    protected Move createMove(Position to){
-        return new Move(this.position, to);
+
+    protected Color opponent(){
+        return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    }
+
+    //공격 가능한 칸 비트보드에서 아군 칸을 빼고 이동 목록에 추가
+    protected void addTargets(Board board, long targets, MoveList moves){
+        int from = position.index();
+        long enemies = board.getColorOccupancy(opponent());
+        targets &= ~board.getColorOccupancy(color);
+        while(targets != 0){
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = ((enemies >>> to) & 1L) != 0 ? PackedMove.CAPTURE : 0;
+            moves.add(PackedMove.of(from, to, flags));
+        }
     }
 }
 
 //나이트는 특정 좌표만 이동 가능하고 중간의 다른 기물이 있어도 넘어갈 수 있음
 class Knight extends Piece{
-    //나이트의 이동 가능 경로 8가지
-    private static final int[][] MOVES = {
-            {-2,-1}, {-2,1},{-1,-2},{-1,2},
-            {1,-2},{1,2},{2,-1},{2,1}
-    };
-
     public Knight(Color color, Position position) { super(color, position);}
 
     @Override
-    public List<Move> getValidMoves(Board board){
-        List<Move> moves = new ArrayList<>();
-
-        for (int i = 0; i < 8; i++){
-            int[] move = MOVES[i];
-
-            Position to = new Position(position.getY() + move[0],position.getX() + move[1]);
+    public PieceType getType(){
+        return PieceType.KNIGHT;
+    }
 
-            //목표가 보드 안인지, 같은 편 기물인지 확인
-            if(to.isWithinBoard()){
-                Piece target = board.getPieceAt(to);
-                if(target == null || target.getColor() != this.color){
-                    //이동 가능 목록에 추가
-                    moves.add(createMove(to));
-                }
-            }
-        }
-        //이동 가능 목록 반환
-        return moves;
+    //나이트의 이동 가능 경로 8가지는 Attacks 에 미리 계산되어 있음
+    @Override
+    public long attacks(Board board){
+        return Attacks.knight(position.index());
     }
 }
 
+//룩, 비숍, 퀸은 다른 기물에 막히기 전까지 한 방향으로 계속 이동 (막은 기물이 적이면 잡기 가능)
 class Rook extends Piece{
-    private static final int[][] DIRS = {
-            {-1,0},{1,0},{0,-1},{0,1}
-    };
-
     public Rook(Color color, Position position) { super(color,position);}
 
     @Override
-    public List<Move> getValidMoves(Board board){
-        List<Move> moves = new ArrayList<>();
-
-        for(int i = 0; i < 4; i++){
-            int[] move = DIRS[i];
-
-            Position to = new Position(position.getY() + move[0], position.getX() + move[1]);
-
-            while(to.isWithinBoard()){
-                Piece target = board.getPieceAt(to);
-
-                if(target == null) {
-                    moves.add(createMove(to));
-                    to = new Position(to.getY() + move[0], to.getX() + move[1]);
-                }
-                else if(target.getColor() != this.color){
-                    moves.add(createMove(to));
-                    break;
-                }
-                else{
-                    break;
-                }
-            }
-        }
-        return moves;
+    public PieceType getType(){
+        return PieceType.ROOK;
+    }
+
+    @Override
+    public long attacks(Board board){
+        return Attacks.rook(position.index(), board.getOccupancy());
     }
 }
 
 class Bishop extends Piece{
-    private static final int[][] DIRS = {
-            {-1,-1},{-1,1},{1,-1},{1,1}
-    };
-
     public Bishop(Color color, Position position){
         super(color,position);
     }
 
     @Override
-    public List<Move> getValidMoves(Board board){
-        List<Move> moves = new ArrayList<>();
-
-        for(int i = 0; i < 4; i++){
-            int[] move = DIRS[i];
-            Position to = new Position(position.getY() + move[0],position.getX() + move[1]);
-            while(to.isWithinBoard()){
-                Piece target = board.getPieceAt(to);
-                if(target == null){
-                    moves.add(createMove(to));
-                    to = new Position(to.getY() + move[0], to.getX() + move[1]);
-                }
-                else if(target.getColor() != this.color){
-                    moves.add(createMove(to));
-                    break;
-                }
-                else{
-                    break;
-                }
-            }
-        }
-        return moves;
+    public PieceType getType(){
+        return PieceType.BISHOP;
+    }
+
+    @Override
+    public long attacks(Board board){
+        return Attacks.bishop(position.index(), board.getOccupancy());
     }
 }
 
 class Queen extends Piece{
-    private static final int[][] DIRS = {
-            {-1,0},{1,0},{0,-1},{0,1},
-            {-1,-1},{-1,1},{1,-1},{1,1}
-    };
-
     public Queen(Color color, Position position){
         super(color,position);
     }
 
     @Override
-    public List<Move> getValidMoves(Board board){
-        List<Move> moves = new ArrayList<>();
-
-        for(int i = 0; i < 8; i++){
-            int[] move = DIRS[i];
-            Position to = new Position(position.getY() + move[0],position.getX() + move[1]);
-            while(to.isWithinBoard()){
-                Piece target = board.getPieceAt(to);
-                if(target == null){
-                    moves.add(createMove(to));
-                    to = new Position(to.getY() + move[0], to.getX() + move[1]);
-                }
-                else if(target.getColor() != this.color){
-                    moves.add(createMove(to));
-                    break;
-                }
-                else{
-                    break;
-                }
-            }
-        }
-        return moves;
+    public PieceType getType(){
+        return PieceType.QUEEN;
+    }
+
+    @Override
+    public long attacks(Board board){
+        return Attacks.queen(position.index(), board.getOccupancy());
     }
 }
 
+//캐슬링은 Game 에서 따로 검사
 class King extends Piece{
-    private static final int[][] DIRS = {
-            {-1,0},{1,0},{0,-1},{0,1},
-            {-1,-1},{-1,1},{1,-1},{1,1}
-    };
-
     public King(Color color, Position position){
         super(color,position);
     }
 
     @Override
-    public List<Move> getValidMoves(Board board){
-        List<Move> moves = new ArrayList<>();
-
-        for(int i = 0; i < 8; i++){
-            int[] move = DIRS[i];
-            Position to = new Position(position.getY() + move[0], position.getX() + move[1]);
+    public PieceType getType(){
+        return PieceType.KING;
+    }
 
-            if(to.isWithinBoard()){
-                Piece target = board.getPieceAt(to);
-                if(target == null || target.getColor() != this.color){
-                    moves.add(createMove(to));
-                }
-            }
-        }
-        return moves;
+    @Override
+    public long attacks(Board board){
+        return Attacks.king(position.index());
     }
 }
 
+//앙파상은 Game 에서 따로 검사
 class Pawn extends Piece{
+    //프로모션으로 바꿀 수 있는 기물 (좋은 기물 순)
+    private static final PieceType[] PROMOTIONS = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT
+    };
+
     public Pawn(Color color, Position position){
         super(color,position);
     }
 
     @Override
-    public List<Move> getValidMoves(Board board){
-        List<Move> moves = new ArrayList<>();
+    public PieceType getType(){
+        return PieceType.PAWN;
+    }
+
+    //대각선 앞 두 칸 (잡을 기물이 있을 때만 이동 가능)
+    @Override
+    public long attacks(Board board){
+        return Attacks.pawn(color, position.index());
+    }
+
+    @Override
+    public void generateMoves(Board board, MoveList moves){
+        generatePushes(board, moves, true, true);
+        generateDiagonalCaptures(board, moves);
+    }
 
+    //대각선 잡기와 전진 프로모션 (둘 다 기물 가치가 바뀌는 수)
+    @Override
+    public void generateCaptures(Board board, MoveList moves){
+        generatePushes(board, moves, false, true);
+        generateDiagonalCaptures(board, moves);
+    }
+
+    //전진 칸 수 + 잡을 수 있는 칸 수 (프로모션은 칸당 하나로 셈)
+    @Override
+    public int mobility(Board board){
+        int count = Long.bitCount(attacks(board) & board.getColorOccupancy(opponent()));
+        int direction = (this.color == Color.WHITE) ? -1 : 1;
+        int forwardY = position.getY() + direction;
+        if(forwardY < 0 || forwardY >= Board.BOARD_SIZE){
+            return count;
+        }
+        long occupied = board.getOccupancy();
+        int oneStep = forwardY * Board.BOARD_SIZE + position.getX();
+        if(((occupied >>> oneStep) & 1L) == 0){
+            count++;
+            int twoStep = oneStep + direction * Board.BOARD_SIZE;
+            if(!this.hasMoved() && Position.isWithinBoard(forwardY + direction, position.getX())
+                    && ((occupied >>> twoStep) & 1L) == 0){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //프로모션이 아닌 전진
+    @Override
+    public void generateQuiets(Board board, MoveList moves){
+        generatePushes(board, moves, true, false);
+    }
+
+    //전진 수 생성 (quiet: 일반 전진, promotions: 전진 프로모션)
+    private void generatePushes(Board board, MoveList moves, boolean quiet, boolean promotions){
         //흑이면 1 백이면 -1
         int direction = (this.color == Color.WHITE) ? -1 : 1;
+        int y = position.getY();
+        int x = position.getX();
+        int from = position.index();
+        int forwardY = y + direction;
+        if(forwardY < 0 || forwardY >= Board.BOARD_SIZE){
+            return;
+        }
+        long occupied = board.getOccupancy();
 
         //한 칸 전진하기
-        Position oneStep = new Position(position.getY() + direction, position.getX());
-        if(oneStep.isWithinBoard() && board.isEmpty(oneStep)){
-            moves.add(createMove(oneStep));
-
-            if(!this.hasMoved()){
-                Position twoStep = new Position(position.getY() + (2 * direction), position.getX());
-                if(twoStep.isWithinBoard() && board.isEmpty(twoStep)){
-                    moves.add(createMove(twoStep));
-                }
+        int oneStep = forwardY * Board.BOARD_SIZE + x;
+        if(((occupied >>> oneStep) & 1L) != 0){
+            return;
+        }
+        boolean promotion = (forwardY == 0 || forwardY == Board.BOARD_SIZE - 1);
+        if(promotion){
+            if(promotions){
+                addPawnMove(from, oneStep, 0, moves);
+            }
+            return;
+        }
+        if(!quiet){
+            return;
+        }
+        moves.add(PackedMove.of(from, oneStep, 0));
+
+        if(!this.hasMoved() && Position.isWithinBoard(y + 2 * direction, x)){
+            int twoStep = oneStep + direction * Board.BOARD_SIZE;
+            if(((occupied >>> twoStep) & 1L) == 0){
+                moves.add(PackedMove.of(from, twoStep, PackedMove.DOUBLE_PUSH));
             }
         }
+    }
 
-        int[] captureCol = {position.getX() - 1, position.getX() + 1};
-        for(int i = 0; i < 2; i++){
-            int newX = captureCol[i];
-            Position capturePos = new Position(position.getY() + direction, newX);
+    //대각선 잡기 (왼쪽, 오른쪽)
+    private void generateDiagonalCaptures(Board board, MoveList moves){
+        long captures = attacks(board) & board.getColorOccupancy(opponent());
+        int from = position.index();
+        while(captures != 0){
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, PackedMove.CAPTURE, moves);
+        }
+    }
 
-            if(capturePos.isWithinBoard() && board.isEnemy(capturePos, this.color)){
-                moves.add(createMove(capturePos));
+    //마지막 줄에 도착하면 프로모션 기물별로 이동을 하나씩 추가
+    private void addPawnMove(int from, int to, int flags, MoveList moves){
+        int toY = to / Board.BOARD_SIZE;
+        if(toY == 0 || toY == Board.BOARD_SIZE - 1){
+            for(int i = 0; i < PROMOTIONS.length; i++){
+                moves.add(PackedMove.of(from, to, flags, PROMOTIONS[i]));
             }
         }
-        return moves;
+        else{
+            moves.add(PackedMove.of(from, to, flags));
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,80 @@
 import java.util.InputMismatchException;
 import java.util.Scanner;
-import java.util.List;
 
-//백 또는 흑 플레이어를 나타내며 사용자 입력을 처리
-public class Player {
+//백 또는 흑 플레이어를 나타내며 사용자 입력을 처리 (콘솔 MoveSource)
+public class Player implements MoveSource {
     //내 팀 색깔
     private final Color color;
-    //스캐너
+    //스캐너 (여러 플레이어가 같은 입력을 쓰면 하나를 넘겨받아 공유)
     private final Scanner scanner;
 
     public Player(Color color) {
+        this(color, new Scanner(System.in));
+    }
+
+    public Player(Color color, Scanner scanner) {
         this.color = color;
-        this.scanner = new Scanner(System.in);
+        this.scanner = scanner;
     }
 
     public Color getColor() {
         return this.color;
     }
 
+    @Override
+    public String getName() {
+        return (color == Color.WHITE) ? "백(W)" : "흑(B)";
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return true;
+    }
+
+    //출발 칸 -> 도착 칸 -> (필요하면) 프로모션 기물 순으로 입력받아 합법 수 하나를 반환
+    @Override
+    public int chooseMove(Board board, MoveList legalMoves) {
+        while (true) {
+            Position from = getMoveFromUser(board);
+            int fromSquare = from.index();
+
+            //선택한 기물의 합법 수만 추려서 보여줌 (프로모션은 목적지마다 한 번만)
+            MoveList pieceMoves = new MoveList();
+            for (int i = 0; i < legalMoves.size(); i++) {
+                int move = legalMoves.get(i);
+                if (PackedMove.from(move) == fromSquare
+                        && (!PackedMove.isPromotion(move) || PackedMove.promotion(move) == PieceType.QUEEN)) {
+                    pieceMoves.add(move);
+                }
+            }
+
+            if (pieceMoves.isEmpty()) {
+                System.out.println("이동 가능한 위치가 없습니다. 다른 기물을 선택해 주십시오,");
+                continue;
+            }
+
+            System.out.print("이동 가능한 위치: ");
+            for (int i = 0; i < pieceMoves.size(); i++) {
+                System.out.println(Position.ofIndex(PackedMove.to(pieceMoves.get(i))) + " ");
+            }
+            System.out.println();
+
+            int selected = getMoveToUser(pieceMoves);
+            if (!PackedMove.isPromotion(selected)) {
+                return selected;
+            }
+            //프로모션 기물을 골라 같은 칸의 해당 수를 찾음
+            PieceType type = Fen.pieceType(choosePromotion());
+            for (int i = 0; i < legalMoves.size(); i++) {
+                int move = legalMoves.get(i);
+                if (PackedMove.sameSquares(move, selected) && PackedMove.promotion(move) == type) {
+                    return move;
+                }
+            }
+            return selected;
+        }
+    }
+
     // 유효한 아군 기물을 선택할 때 까지 사용자에게 입력을 받음
     public Position getMoveFromUser(Board board) {
         Position fromPos = null;
@@ -25,8 +82,7 @@ public class Player {
 
         //유효한 입력을 받을 때 까지 반복
         while (!isValid) {
-            String output = ((color == Color.WHITE) ? "백(W)" : "흑(B)")
-                    + "팀의 기물 이동\n이동할 기물의 위치 (y x):";
+            String output = getName() + "팀의 기물 이동\n이동할 기물의 위치 (y x):";
 
             fromPos = getPositionInput(output);
 
@@ -52,37 +108,43 @@ public class Player {
 
     }
 
-    //사용자가 어디로 갈지 고르는 과정
-    public Move getMoveToUser(Position from, List<Move> legalMoves) {
-        Move selectedMove = null;
-        boolean isValid = false;
-
-        while (!isValid) {
+    //사용자가 어디로 갈지 고르는 과정 (pieceMoves 는 선택한 기물의 합법 수)
+    public int getMoveToUser(MoveList pieceMoves) {
+        while (true) {
             Position toPos = getPositionInput("목표 위치 (y x):");
 
             if (toPos == null) {
                 continue;
             }
 
-            Move intendedMove = new Move(from , toPos);
-
-            for(int i = 0; i < legalMoves.size(); i++){
-                Move legalMove = legalMoves.get(i);
+            for(int i = 0; i < pieceMoves.size(); i++){
+                int legalMove = pieceMoves.get(i);
 
-                if(legalMove.equals(intendedMove)){
-                    selectedMove = legalMove;
-                    isValid = true;
-                    break;
+                if(PackedMove.to(legalMove) == toPos.index()){
+                    return legalMove;
                 }
             }
 
-            if(!isValid) {
-                System.out.println("유효하지 않은 이동입니다. 다시 시도하세요.");
-            }
+            System.out.println("유효하지 않은 이동입니다. 다시 시도하세요.");
         }
-        return selectedMove;
     }
 
+    //프로모션 기물 선택 (q: 퀸, r: 룩, b: 비숍, n: 나이트)
+    public char choosePromotion() {
+        System.out.println("폰 프로모션! 어떤 기물로 승급하시겠습니까? (q: 퀸, r: 룩, b: 비숍, n: 나이트)");
+        char choice = ' ';
+        while (choice != 'q' && choice != 'r' && choice != 'b' && choice != 'n') {
+            try {
+                String input = scanner.next(); // 단어 하나 입력받기
+                if (input.length() > 0) {
+                    choice = input.charAt(0); // 첫 글자만 따오기
+                }
+            } catch (Exception e) {
+                scanner.nextLine(); // 에러 나면 버퍼 비우기
+            }
+        }
+        return choice;
+    }
 
     private Position getPositionInput(String output) {
         System.out.print(output);
@@ -92,7 +154,7 @@ public class Player {
             int x = scanner.nextInt();
 
             //1차 범위 검증
-            Position pos = new Position(y, x);
+            Position pos = Position.of(y, x);
             if(!pos.isWithinBoard()){
                 System.out.println("체스판의 범위를 넘어섰습니다. 다시 입력해주세요. (0~7)");
                 return null;
@@ -1,4 +1,13 @@
 public final class Position {
+    //보드 안 64칸의 좌표는 미리 만들어 두고 재사용
+    private static final Position[] CACHE = new Position[64];
+
+    static {
+        for(int square = 0; square < 64; square++){
+            CACHE[square] = new Position(square / 8, square % 8);
+        }
+    }
+
     private final int y;
     private final int x;
 
@@ -8,6 +17,19 @@ public final class Position {
         this.x = x;
     }
 
+    //좌표 객체 반환 (보드 안이면 캐시된 객체, 밖이면 새로 생성)
+    public static Position of(int y, int x){
+        if(isWithinBoard(y, x)){
+            return CACHE[y * 8 + x];
+        }
+        return new Position(y, x);
+    }
+
+    //칸 번호(0~63)로 캐시된 좌표 객체 반환
+    public static Position ofIndex(int square){
+        return CACHE[square];
+    }
+
     // Y 좌표 Get
     public int getY() {
         return y;
@@ -18,8 +40,18 @@ public final class Position {
         return x;
     }
 
+    //칸 번호 (y * 8 + x, 보드 안 좌표에서만 의미 있음)
+    public int index(){
+        return y * 8 + x;
+    }
+
     //기물이 체스판 안에 있는지 검사
     public boolean isWithinBoard(){
+        return isWithinBoard(y, x);
+    }
+
+    //객체를 만들지 않고 좌표가 체스판 안인지 검사
+    public static boolean isWithinBoard(int y, int x){
         return y >= 0 && y < 8 && x >= 0 && x < 8;
     }
 
@@ -39,6 +71,12 @@ public final class Position {
         return y == position.y && x == position.x;
     }
 
+    //equals 와 같은 기준 (y, x) 으로 해시값 계산
+    @Override
+    public int hashCode(){
+        return 31 * y + x;
+    }
+
     @Override
     public String toString(){
         return "Position[y=" + y + ", x=" + x + "]";
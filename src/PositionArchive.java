@@ -0,0 +1,221 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Random;
+
+//CompactPosition 국면을 고정 길이로 이어 붙인 파일과 메모리 매핑 리더
+//  0..3   "SWPP"
+//  4..7   형식 버전
+//  8..15  국면 수
+//  16..   국면마다 32바이트
+//파일을 통째로 매핑하므로 여는 비용은 파일 크기와 무관하고, 번호로 바로 해당 국면을 읽음
+//매핑 하나는 2GB 를 넘을 수 없으므로 1GB 단위로 나누어 매핑함
+//사용법: java PositionArchive <파일.pgn> <출력 접두어>   (접두어.pos 와 접두어.games 를 만듦)
+final class PositionArchive implements Closeable {
+    static final int MAGIC = 0x53575050;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    //매핑 하나에 담는 국면 수 (1GB)
+    private static final long CHUNK_POSITIONS = (1L << 30) / CompactPosition.SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private PositionArchive(FileChannel channel, MappedByteBuffer[] chunks, long size){
+        this.channel = channel;
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    static PositionArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if(header.getInt() != MAGIC){
+                throw new IOException("국면 파일이 아닙니다: " + path);
+            }
+            int version = header.getInt();
+            if(version != VERSION){
+                throw new IOException("지원하지 않는 형식 버전: " + version);
+            }
+            long size = header.getLong();
+            if(channel.size() < HEADER_SIZE + size * CompactPosition.SIZE){
+                throw new IOException("파일이 잘렸습니다: " + path);
+            }
+            int chunkCount = (int) ((size + CHUNK_POSITIONS - 1) / CHUNK_POSITIONS);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for(int i = 0; i < chunkCount; i++){
+                long first = i * CHUNK_POSITIONS;
+                long count = Math.min(CHUNK_POSITIONS, size - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * CompactPosition.SIZE, count * CompactPosition.SIZE);
+            }
+            return new PositionArchive(channel, chunks, size);
+        } catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    long size(){
+        return size;
+    }
+
+    //index 번째 국면의 32바이트를 out[offset..) 에 복사
+    void read(long index, byte[] out, int offset){
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("국면 번호가 범위를 벗어났습니다: " + index);
+        }
+        MappedByteBuffer chunk = chunks[(int) (index / CHUNK_POSITIONS)];
+        int position = (int) (index % CHUNK_POSITIONS) * CompactPosition.SIZE;
+        chunk.get(position, out, offset, CompactPosition.SIZE);
+    }
+
+    Board get(long index){
+        byte[] record = new byte[CompactPosition.SIZE];
+        read(index, record, 0);
+        return CompactPosition.decode(record, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            int n = channel.read(buffer, position);
+            if(n < 0){
+                throw new IOException("파일이 너무 짧습니다");
+            }
+            position += n;
+        }
+    }
+
+    //국면을 차례로 덧붙여 쓰는 기록기 (닫을 때 머리의 국면 수를 채움)
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private final byte[] record = new byte[CompactPosition.SIZE];
+        private long count;
+
+        Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(0);
+        }
+
+        void add(Board board) throws IOException {
+            CompactPosition.encode(board, record, 0);
+            if(buffer.remaining() < record.length){
+                flush();
+            }
+            buffer.put(record);
+            count++;
+        }
+
+        long getCount(){
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try{
+                flush();
+                ByteBuffer size = ByteBuffer.allocate(8).putLong(0, count);
+                channel.write(size, 8);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    //PGN 을 국면 파일과 대국 파일로 변환하고 크기와 읽기 속도를 출력
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2){
+            System.out.println("사용법: java PositionArchive <파일.pgn> <출력 접두어>");
+            return;
+        }
+        Path pgnPath = Paths.get(args[0]);
+        Path positionPath = Paths.get(args[1] + ".pos");
+        Path gamePath = Paths.get(args[1] + ".games");
+
+        long start = System.nanoTime();
+        long games = 0;
+        long failed = 0;
+        long plies = 0;
+        MoveList legalMoves = new MoveList();
+        try(PgnReader reader = PgnReader.open(pgnPath);
+            Writer positions = new Writer(positionPath);
+            GameArchive.Writer gameWriter = new GameArchive.Writer(gamePath)){
+            PgnGame game;
+            while((game = reader.next()) != null){
+                //먼저 SAN 을 모두 해석하고 대국 기록을 만들어, 실패한 대국은 어느 파일에도 남기지 않음
+                int[] moves = new int[game.moves.size()];
+                Board startBoard;
+                try{
+                    startBoard = Fen.parse(game.getStartFen());
+                    PgnReplayer.replay(game, legalMoves, (g, board, ply, move) -> moves[ply] = move);
+                    //수 번호를 1바이트로 나타낼 수 없는 국면이 있으면 여기서 거부됨
+                    gameWriter.add(startBoard, moves, game.result);
+                } catch (IllegalArgumentException e){
+                    failed++;
+                    continue;
+                }
+                Board board = startBoard.copy();
+                for(int i = 0; i < moves.length; i++){
+                    board.makeMove(moves[i]);
+                    positions.add(board);
+                }
+                games++;
+                plies += moves.length;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long pgnBytes = pgnPath.toFile().length();
+        long positionBytes = positionPath.toFile().length();
+        long gameBytes = gamePath.toFile().length();
+        System.out.printf(Locale.ROOT, "대국 %d (실패 %d), 수 %d, 변환 %.3f초%n", games, failed, plies, seconds);
+        System.out.printf(Locale.ROOT, "PGN %d 바이트, 국면 파일 %d 바이트 (국면당 %d), 대국 파일 %d 바이트 (수당 %.2f)%n",
+                pgnBytes, positionBytes, CompactPosition.SIZE, gameBytes, (double) gameBytes / Math.max(plies, 1));
+
+        //열기와 임의 접근 속도
+        start = System.nanoTime();
+        try(PositionArchive archive = open(positionPath)){
+            long opened = System.nanoTime();
+            Random random = new Random(1);
+            int reads = (int) Math.min(100_000, archive.size());
+            long sink = 0;
+            for(int i = 0; i < reads; i++){
+                sink += archive.get((long) (random.nextDouble() * archive.size())).getZobristKey();
+            }
+            long done = System.nanoTime();
+            System.out.printf(Locale.ROOT, "국면 파일 열기 %.3fms, 임의 국면 %d개 복원 %.3f초 (국면당 %.2fus) [%d]%n",
+                    (opened - start) / 1e6, reads, (done - opened) / 1e9, (done - opened) / 1e3 / Math.max(reads, 1),
+                    sink & 1);
+        }
+        try(GameArchive archive = GameArchive.open(gamePath)){
+            if(archive.size() > 0){
+                CompactGame last = archive.get(archive.size() - 1);
+                System.out.println("마지막 대국: " + last.getPlyCount() + "수, " + last.result);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.Random;
+
+//합법 수 중 하나를 무작위로 고르는 MoveSource (같은 시드면 같은 대국)
+final class RandomMoveSource implements MoveSource {
+    private final long seed;
+    private final Random random;
+
+    RandomMoveSource(long seed){
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int chooseMove(Board board, MoveList legalMoves){
+        return legalMoves.get(random.nextInt(legalMoves.size()));
+    }
+
+    @Override
+    public String getName(){
+        return "random:" + seed;
+    }
+}
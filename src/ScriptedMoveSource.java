@@ -0,0 +1,32 @@
+import java.util.List;
+
+//정해진 수순(UCI 표기)을 차례대로 두는 MoveSource (기보 재생, 재현 테스트용)
+//수순이 끝나거나 합법이 아닌 수를 만나면 PackedMove.NONE 을 반환
+final class ScriptedMoveSource implements MoveSource {
+    private final String name;
+    private final List<String> moves;
+    private int next;
+
+    ScriptedMoveSource(String name, List<String> moves){
+        this.name = name;
+        this.moves = moves;
+    }
+
+    @Override
+    public int chooseMove(Board board, MoveList legalMoves){
+        if(next >= moves.size()){
+            return PackedMove.NONE;
+        }
+        return PackedMove.findUci(legalMoves, moves.get(next++));
+    }
+
+    @Override
+    public String getName(){
+        return name;
+    }
+
+    //남은 수 개수
+    int remaining(){
+        return moves.size() - next;
+    }
+}
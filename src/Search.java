@@ -0,0 +1,432 @@
+//반복 심화 + 네가맥스 알파베타 탐색
+//시간 예산 안에서 깊이를 1씩 늘리며 탐색하고, 시간이 다 되면 마지막으로 확정된 최선 수를 반환
+//보드를 직접 두었다 되돌리므로 탐색 중에는 다른 곳에서 같은 보드를 쓰면 안 됨
+final class Search {
+    static final int INFINITY = 1_000_000;
+    static final int MATE = 100_000;
+    static final int MAX_PLY = 128;
+    static final int MAX_DEPTH = 64;
+
+    //mate 점수로 볼 최소값 (수 거리만큼 빠진 mate 점수 포함)
+    static final int MATE_THRESHOLD = MATE - MAX_PLY;
+
+    //시간 확인 간격 (노드 수)
+    private static final int CHECK_INTERVAL = 2048;
+
+    private final Board board;
+    private final MoveGenerator generator;
+    private final Evaluator evaluator;
+    //같은 국면을 다른 수순으로 다시 만났을 때 이전 결과를 재사용
+    private final TranspositionTable table;
+
+    //루트의 합법 수 목록과 정렬 점수
+    private final MoveList rootMoves = new MoveList();
+    private int[] rootScores = new int[MoveList.DEFAULT_CAPACITY];
+    //깊이(ply)별 단계 수 생성기 (탐색 중 할당하지 않도록 미리 생성)
+    private final MovePicker[] pickers;
+    //ply 별로 베타 컷을 낸 조용한 수 2개
+    private final int[][] killers;
+    //현재 탐색 경로의 Zobrist 키 (반복 국면 판정)
+    private final long[] pathKeys;
+    //setHistory 로 받은 루트 이전 게임 국면의 키 (없으면 null)
+    private long[] givenHistory;
+    //이번 탐색에서 쓰는 루트 이전 게임 국면의 키 (오래된 것부터, 반복 국면 판정)
+    private long[] historyKeys;
+    //기물이 적은 국면의 정확한 값 (없으면 null)
+    private Tablebases tablebases;
+
+    //이 탐색 스레드의 치환표 통계 (스레드끼리 공유하지 않음)
+    private final TranspositionTable.Stats tableStats = new TranspositionTable.Stats();
+
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    //다른 스레드가 탐색을 멈추게 할 때 사용 (병렬 탐색)
+    private volatile boolean stopRequested;
+
+    //루트 결과
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+
+    Search(Board board){
+        this(board, new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    //치환표를 넘겨받아 여러 번의 탐색(예: 게임의 매 수)에서 이어서 사용
+    Search(Board board, TranspositionTable table){
+        this.board = board;
+        this.table = table;
+        this.generator = new MoveGenerator(board);
+        this.evaluator = new Evaluator();
+        this.pickers = new MovePicker[MAX_PLY + 1];
+        for(int i = 0; i <= MAX_PLY; i++){
+            pickers[i] = new MovePicker(board, generator);
+        }
+        this.killers = new int[MAX_PLY + 1][2];
+        this.pathKeys = new long[MAX_PLY + 1];
+    }
+
+    //시간 예산(밀리초)과 최대 깊이 안에서 최선 수 탐색 (둘 수가 없으면 PackedMove.NONE)
+    int search(long timeMillis, int maxDepth){
+        stopRequested = false;
+        table.newSearch();
+        return iterate(timeMillis, maxDepth, 1);
+    }
+
+    //병렬 탐색의 보조 스레드용: 치환표 세대는 주 스레드가 이미 올렸으므로 그대로 두고,
+    //시작 깊이를 달리하여 주 스레드와 다른 가지를 먼저 채우게 함
+    //stop() 이 시작 전에 불려도 놓치지 않도록 멈춤 요청은 초기화하지 않음 (스레드마다 새 Search 사용)
+    int searchHelper(long timeMillis, int maxDepth, int startDepth){
+        return iterate(timeMillis, maxDepth, startDepth);
+    }
+
+    //루트 이전의 게임 국면 키를 지정 (지정하지 않으면 탐색마다 board 의 되돌리기 기록을 씀)
+    //보드 복사본으로 탐색할 때 원본의 getPositionHistory() 를 넘김
+    void setHistory(long[] keys){
+        this.givenHistory = keys;
+    }
+
+    //탐색 중 엔드게임 테이블에 있는 국면은 더 내려가지 않고 테이블 값을 씀
+    void setTablebases(Tablebases tablebases){
+        this.tablebases = tablebases;
+    }
+
+    //다른 스레드에서 호출 가능, 다음 시간 확인 때 탐색이 멈춤
+    void stop(){
+        stopRequested = true;
+    }
+
+    private int iterate(long timeMillis, int maxDepth, int startDepth){
+        long start = System.nanoTime();
+        long budget = Math.max(1, timeMillis) * 1_000_000L;
+        this.deadline = start + budget;
+        this.stopped = false;
+        this.nodes = 0;
+        tableStats.clear();
+        this.bestMove = PackedMove.NONE;
+        this.bestScore = 0;
+        this.completedDepth = 0;
+        clearKillers();
+
+        rootMoves.clear();
+        generator.generateLegalMoves(rootMoves);
+        if(rootMoves.isEmpty()){
+            return PackedMove.NONE;
+        }
+        //시간이 거의 없어도 둘 수는 있어야 함 (이전 탐색이 남긴 수가 합법이면 그 수부터)
+        bestMove = rootMoves.get(0);
+        long entry = table.probe(board.getZobristKey(), tableStats);
+        if(entry != 0 && rootMoves.contains(TranspositionTable.move(entry))){
+            bestMove = TranspositionTable.move(entry);
+        }
+        pathKeys[0] = board.getZobristKey();
+        historyKeys = (givenHistory != null) ? givenHistory : board.getPositionHistory();
+
+        for(int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++){
+            int score = searchRoot(depth);
+            if(stopped){
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            //이미 mate 를 찾았거나 다음 깊이를 끝낼 시간이 없어 보이면 중단
+            if(Math.abs(score) >= MATE_THRESHOLD){
+                break;
+            }
+            if(System.nanoTime() - start > budget / 2){
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    //루트에서 한 깊이 탐색 (이전 깊이의 최선 수를 먼저 봄)
+    private int searchRoot(int depth){
+        MoveList moves = rootMoves;
+        //MoveList 는 기본 크기를 넘으면 늘어나므로 점수 버퍼도 같이 늘림 (FEN 으로 만든 특이한 국면)
+        if(rootScores.length < moves.size()){
+            rootScores = new int[moves.size()];
+        }
+        int[] scores = rootScores;
+        scoreMoves(moves, scores, 0, bestMove);
+
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        int iterationBest = PackedMove.NONE;
+        for(int i = 0; i < moves.size(); i++){
+            pickNext(moves, scores, i);
+            int move = moves.get(i);
+
+            UndoInfo undo = board.makeMove(move);
+            int score = -negamax(depth - 1, 1, -beta, -alpha);
+            board.unmakeMove(undo);
+
+            if(stopped){
+                break;
+            }
+            if(score > alpha){
+                alpha = score;
+                iterationBest = move;
+            }
+        }
+        //중단되었더라도 끝까지 본 수 중 더 좋은 수가 있으면 사용
+        if(iterationBest != PackedMove.NONE){
+            bestMove = iterationBest;
+        }
+        if(!stopped){
+            table.store(board.getZobristKey(), bestMove, TranspositionTable.scoreToTable(alpha, 0), depth, TranspositionTable.BOUND_EXACT, tableStats);
+        }
+        return alpha;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta){
+        if(shouldStop()){
+            return 0;
+        }
+        pathKeys[ply] = board.getZobristKey();
+        if(isDrawByRule(ply)){
+            return 0;
+        }
+        if(tablebases != null){
+            int value = tablebases.probe(board);
+            if(value != Tablebases.NOT_FOUND){
+                nodes++;
+                return tablebaseScore(value, ply);
+            }
+        }
+
+        boolean inCheck = generator.isKingInCheck(board.getSideToMove());
+        //체크 상태에서는 한 수 더 봄 (수평선 효과 완화)
+        if(inCheck){
+            depth++;
+        }
+        if(depth <= 0){
+            return quiescence(ply, alpha, beta);
+        }
+        if(ply >= MAX_PLY){
+            return evaluator.evaluate(board);
+        }
+        nodes++;
+
+        //충분히 깊게 본 결과가 있으면 그대로 사용, 아니면 그 최선 수를 먼저 봄
+        long key = board.getZobristKey();
+        int hashMove = PackedMove.NONE;
+        long entry = table.probe(key, tableStats);
+        if(entry != 0){
+            hashMove = TranspositionTable.move(entry);
+            if(TranspositionTable.depth(entry) >= depth){
+                int hashScore = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if(bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && hashScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && hashScore <= alpha)){
+                    return hashScore;
+                }
+            }
+        }
+
+        //수는 단계별로 필요한 만큼만 생성 (MovePicker 가 합법 수만 돌려줌)
+        MovePicker picker = pickers[ply];
+        picker.reset(hashMove, killers[ply][0], killers[ply][1], false);
+        int legalMoves = 0;
+        int originalAlpha = alpha;
+        int nodeBest = PackedMove.NONE;
+        int move;
+        while((move = picker.next()) != PackedMove.NONE){
+            legalMoves++;
+            UndoInfo undo = board.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove(undo);
+
+            if(stopped){
+                return 0;
+            }
+            if(score >= beta){
+                if(!PackedMove.isCapture(move) && !PackedMove.isPromotion(move)){
+                    storeKiller(ply, move);
+                }
+                table.store(key, move, TranspositionTable.scoreToTable(beta, ply), depth, TranspositionTable.BOUND_LOWER, tableStats);
+                return beta;
+            }
+            if(score > alpha){
+                alpha = score;
+                nodeBest = move;
+            }
+        }
+        if(legalMoves == 0){
+            //체크메이트는 가까울수록 큰 점수, 스테일메이트는 무승부
+            return inCheck ? -MATE + ply : 0;
+        }
+        int bound = (alpha > originalAlpha) ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, nodeBest, TranspositionTable.scoreToTable(alpha, ply), depth, bound, tableStats);
+        return alpha;
+    }
+
+    //잡기와 프로모션만 이어서 보아 교환 도중에 평가하지 않도록 함
+    private int quiescence(int ply, int alpha, int beta){
+        if(shouldStop()){
+            return 0;
+        }
+        nodes++;
+        if(ply >= MAX_PLY){
+            return evaluator.evaluate(board);
+        }
+
+        boolean inCheck = generator.isKingInCheck(board.getSideToMove());
+        //체크가 아니면 지금 멈추는 것(stand pat)도 선택지
+        if(!inCheck){
+            int standPat = evaluator.evaluate(board);
+            if(standPat >= beta){
+                return beta;
+            }
+            if(standPat > alpha){
+                alpha = standPat;
+            }
+        }
+
+        //체크 상태에서는 모든 피하는 수를, 아니면 잡기와 프로모션만 봄
+        MovePicker picker = pickers[ply];
+        picker.reset(PackedMove.NONE, PackedMove.NONE, PackedMove.NONE, !inCheck);
+        int legalMoves = 0;
+        int move;
+        while((move = picker.next()) != PackedMove.NONE){
+            legalMoves++;
+            UndoInfo undo = board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove(undo);
+
+            if(stopped){
+                return 0;
+            }
+            if(score >= beta){
+                return beta;
+            }
+            if(score > alpha){
+                alpha = score;
+            }
+        }
+        //잡기만 본 경우에는 수가 없어도 스테일메이트라고 할 수 없음
+        if(inCheck && legalMoves == 0){
+            return -MATE + ply;
+        }
+        return alpha;
+    }
+
+    //루트 수 정렬 점수: 우선 수 > 잡기(싼 기물로 비싼 기물 잡기 우선) > 프로모션 > 킬러 수
+    private void scoreMoves(MoveList moves, int[] scores, int ply, int firstMove){
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            int score = 0;
+            if(move == firstMove){
+                score = 1_000_000;
+            }
+            else if(PackedMove.isCapture(move)){
+                Piece victim = board.getPieceAt(PackedMove.to(move));
+                Piece attacker = board.getPieceAt(PackedMove.from(move));
+                int victimValue = (victim == null) ? Evaluator.PIECE_VALUES[0] : Evaluator.PIECE_VALUES[victim.getType().ordinal()];
+                score = 100_000 + victimValue * 10 - Evaluator.PIECE_VALUES[attacker.getType().ordinal()] / 10;
+            }
+            else if(PackedMove.isPromotion(move)){
+                score = 90_000 + Evaluator.PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+            }
+            else if(move == killers[ply][0]){
+                score = 80_000;
+            }
+            else if(move == killers[ply][1]){
+                score = 79_000;
+            }
+            scores[i] = score;
+        }
+    }
+
+    //남은 수 중 점수가 가장 높은 수를 index 자리로 가져옴 (베타 컷이 나면 나머지는 정렬하지 않음)
+    private static void pickNext(MoveList moves, int[] scores, int index){
+        int best = index;
+        for(int i = index + 1; i < moves.size(); i++){
+            if(scores[i] > scores[best]){
+                best = i;
+            }
+        }
+        if(best != index){
+            moves.swap(index, best);
+            int tmp = scores[index];
+            scores[index] = scores[best];
+            scores[best] = tmp;
+        }
+    }
+
+    private void storeKiller(int ply, int move){
+        if(killers[ply][0] != move){
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    //테이블 값을 탐색 점수로 변환 (메이트까지의 반수를 mate 점수처럼 반영)
+    //MAX_PLY 안에 메이트가 끝나지 않으면 mate 점수보다 작고 평가값보다는 큰 점수를 씀
+    static int tablebaseScore(int value, int ply){
+        if(!Tablebase.isWin(value) && !Tablebase.isLoss(value)){
+            return 0;
+        }
+        int distance = ply + Tablebase.pliesToMate(value);
+        int score = (distance < MAX_PLY) ? MATE - distance : MATE_THRESHOLD - distance;
+        return Tablebase.isWin(value) ? score : -score;
+    }
+
+    private void clearKillers(){
+        for(int i = 0; i < killers.length; i++){
+            killers[i][0] = PackedMove.NONE;
+            killers[i][1] = PackedMove.NONE;
+        }
+    }
+
+    //50수 규칙 또는 탐색 경로나 루트 이전 게임 기록에서 같은 국면이 반복되면 무승부
+    private boolean isDrawByRule(int ply){
+        if(board.getHalfmoveClock() >= 100){
+            return true;
+        }
+        //같은 쪽 차례인 국면만 비교, 폰 이동이나 잡기 이전으로는 거슬러 가지 않음
+        //ply 보다 멀리 가면 루트 이전의 게임 기록을 봄
+        int limit = Math.min(ply + historyKeys.length, board.getHalfmoveClock());
+        for(int back = 4; back <= limit; back += 2){
+            long key = (back <= ply) ? pathKeys[ply - back] : historyKeys[historyKeys.length - (back - ply)];
+            if(key == pathKeys[ply]){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean shouldStop(){
+        if(stopped){
+            return true;
+        }
+        if((nodes & (CHECK_INTERVAL - 1)) == 0 && (stopRequested || System.nanoTime() > deadline)){
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    //마지막 탐색에서 이 스레드가 본 치환표 통계
+    TranspositionTable.Stats getTableStats(){
+        return tableStats;
+    }
+
+    long getNodes(){
+        return nodes;
+    }
+
+    //마지막으로 끝까지 마친 깊이의 점수 (둘 차례 기준 센티폰)
+    int getBestScore(){
+        return bestScore;
+    }
+
+    int getCompletedDepth(){
+        return completedDepth;
+    }
+
+    TranspositionTable getTable(){
+        return table;
+    }
+}
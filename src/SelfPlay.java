@@ -0,0 +1,311 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+//콘솔 게임 루프 없이 두 MoveSource 를 여러 판 대국시키는 자동 대국 도구
+//대국마다 보드와 MoveSource 를 새로 만들어 스레드 풀에서 동시에 진행하고, 결과를 PGN / JSON 으로 저장
+//사용법: java SelfPlay [--games N] [--concurrency N] [--a 설정] [--b 설정] [--max-plies N]
+//                      [--hash MB] [--fen FEN] [--book 파일] [--tb 디렉터리] [--pgn 파일] [--json 파일]
+//설정: engine:<ms>[:<깊이>[:<치환표 교체 정책>]], random[:<시드>], script:<UCI 수,...> 또는 remote:<호스트>:<포트>
+//script 는 자기 차례마다 주어진 수(자기 쪽 수만 적음)를 차례로 두고, remote 는 판마다 TCP 로 연결해 StreamMoveSource 줄 프로토콜로 수를 받음
+//교체 정책은 depth-preferred(기본) 또는 always-replace, A 와 B 에 다른 정책을 주어 대국 결과로 비교할 수 있음
+//--book 을 주면 엔진은 북에 있는 국면에서 탐색하지 않고 북의 수를 둠
+//--tb 를 주면 엔진 탐색이 엔드게임 테이블을 쓰고, 테이블에 있는 국면이 되면 대국을 테이블 결과로 판정함
+//A 와 B 는 판마다 백과 흑을 번갈아 맡음 (짝수 번째 판은 A 가 백)
+final class SelfPlay {
+    //대국 설정
+    private final int games;
+    private final int concurrency;
+    private final IntFunction<MoveSource> playerA;
+    private final IntFunction<MoveSource> playerB;
+    private final int maxPlies;
+    private final String startFen;
+    //대국 판정용 엔드게임 테이블 (없으면 null)
+    private Tablebases tablebases;
+
+    SelfPlay(int games, int concurrency, IntFunction<MoveSource> playerA, IntFunction<MoveSource> playerB,
+             int maxPlies, String startFen){
+        this.games = games;
+        this.concurrency = concurrency;
+        this.playerA = playerA;
+        this.playerB = playerB;
+        this.maxPlies = maxPlies;
+        this.startFen = startFen;
+    }
+
+    void setTablebases(Tablebases tablebases){
+        this.tablebases = tablebases;
+    }
+
+    //모든 대국을 두고 판 순서대로 기록을 반환
+    List<GameRecord> run() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        try{
+            List<Future<GameRecord>> futures = new ArrayList<>(games);
+            for(int i = 0; i < games; i++){
+                int gameIndex = i;
+                futures.add(pool.submit(() -> playGame(gameIndex)));
+            }
+            List<GameRecord> records = new ArrayList<>(games);
+            for(int i = 0; i < futures.size(); i++){
+                try{
+                    records.add(futures.get(i).get());
+                } catch (ExecutionException e){
+                    throw new IllegalStateException((i + 1) + "번째 대국이 실패했습니다", e.getCause());
+                }
+            }
+            return records;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    //대국 하나 (MoveSource 는 대국마다 새로 만들어 스레드 간에 공유하지 않음)
+    private GameRecord playGame(int gameIndex){
+        //b 를 만들다 실패해도 이미 연 a 는 닫아야 하므로 a 를 만든 직후부터 try 안에서 진행
+        MoveSource a = playerA.apply(gameIndex);
+        MoveSource b = null;
+        GameRecord record;
+        try{
+            b = playerB.apply(gameIndex);
+            boolean aIsWhite = (gameIndex % 2 == 0);
+            HeadlessGame game = new HeadlessGame(Fen.parse(startFen),
+                    aIsWhite ? a : b, aIsWhite ? b : a, maxPlies);
+            game.setTablebases(tablebases);
+            record = game.play();
+        } finally {
+            closeSource(a);
+            closeSource(b);
+        }
+        synchronized (System.out){
+            System.out.printf(Locale.ROOT, "게임 %d/%d: %s - %s %s (%s, %d수, %dms)%n",
+                    gameIndex + 1, games, record.white, record.black, record.result,
+                    record.termination, record.getPlyCount(), record.durationMillis);
+        }
+        return record;
+    }
+
+    //연결을 가진 MoveSource (remote) 를 닫음 (null 이나 닫을 것이 없는 MoveSource 는 무시)
+    private static void closeSource(MoveSource source){
+        if(source instanceof AutoCloseable){
+            try{
+                ((AutoCloseable) source).close();
+            } catch (Exception e){
+                System.err.println(source.getName() + " 닫기 실패: " + e.getMessage());
+            }
+        }
+    }
+
+    //A 기준 점수 (승 1, 무 0.5)
+    static double scoreOfA(List<GameRecord> records){
+        double score = 0;
+        for(int i = 0; i < records.size(); i++){
+            GameRecord record = records.get(i);
+            boolean aIsWhite = (i % 2 == 0);
+            if(record.isDraw()){
+                score += 0.5;
+            }
+            else if(record.result.equals(GameRecord.WHITE_WINS) == aIsWhite){
+                score += 1;
+            }
+        }
+        return score;
+    }
+
+    static String toPgn(List<GameRecord> records, String event){
+        StringBuilder sb = new StringBuilder();
+        String date = LocalDate.now().toString().replace('-', '.');
+        for(int i = 0; i < records.size(); i++){
+            Pgn.write(sb, records.get(i), event, i + 1, date);
+        }
+        return sb.toString();
+    }
+
+    //대국별 결과와 A 기준 요약
+    static String toJson(List<GameRecord> records, String nameA, String nameB){
+        int winsA = 0;
+        int draws = 0;
+        int lossesA = 0;
+        StringBuilder games = new StringBuilder();
+        for(int i = 0; i < records.size(); i++){
+            GameRecord r = records.get(i);
+            boolean aIsWhite = (i % 2 == 0);
+            if(r.isDraw()){
+                draws++;
+            }
+            else if(r.result.equals(GameRecord.WHITE_WINS) == aIsWhite){
+                winsA++;
+            }
+            else{
+                lossesA++;
+            }
+            games.append("    {\"round\": ").append(i + 1)
+                    .append(", \"white\": ").append(jsonString(r.white))
+                    .append(", \"black\": ").append(jsonString(r.black))
+                    .append(", \"result\": ").append(jsonString(r.result))
+                    .append(", \"termination\": ").append(jsonString(String.valueOf(r.termination)))
+                    .append(", \"plies\": ").append(r.getPlyCount())
+                    .append(", \"millis\": ").append(r.durationMillis)
+                    .append((i + 1 < records.size()) ? "},\n" : "}\n");
+        }
+        double score = winsA + draws * 0.5;
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"a\": ").append(jsonString(nameA)).append(",\n");
+        sb.append("  \"b\": ").append(jsonString(nameB)).append(",\n");
+        sb.append("  \"summary\": {\"games\": ").append(records.size())
+                .append(", \"winsA\": ").append(winsA)
+                .append(", \"draws\": ").append(draws)
+                .append(", \"lossesA\": ").append(lossesA)
+                .append(", \"scoreA\": ").append(String.format(Locale.ROOT, "%.3f",
+                        records.isEmpty() ? 0.0 : score / records.size()))
+                .append("},\n");
+        sb.append("  \"games\": [\n").append(games).append("  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    //따옴표로 감싼 JSON 문자열 (설정과 이름에 따옴표, 역슬래시, 제어 문자가 있어도 깨지지 않게 이스케이프)
+    static String jsonString(String value){
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            switch (c){
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if(c < 0x20){
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    }
+                    else{
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    //설정 문자열을 대국 번호별 MoveSource 생성기로 변환 (book 이 있으면 엔진 앞에 북을 둠, tablebases 는 엔진 탐색에 씀)
+    static IntFunction<MoveSource> parseSource(String spec, int hashMegabytes, OpeningBook book, Tablebases tablebases){
+        String[] parts = spec.split(":");
+        switch (parts[0]){
+            case "engine": {
+                long millis = (parts.length > 1) ? Long.parseLong(parts[1]) : 100;
+                int depth = (parts.length > 2) ? Integer.parseInt(parts[2]) : Search.MAX_DEPTH;
+                TranspositionTable.ReplacementPolicy policy = (parts.length > 3)
+                        ? TranspositionTable.ReplacementPolicy.parse(parts[3])
+                        : TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+                return gameIndex -> {
+                    EngineMoveSource engine = new EngineMoveSource(millis, depth, 1, hashMegabytes, policy);
+                    engine.setTablebases(tablebases);
+                    //판마다 다른 북 수순이 나오도록 시드에 판 번호를 씀
+                    return (book == null) ? engine : new BookMoveSource(book, engine, gameIndex);
+                };
+            }
+            case "random": {
+                long seed = (parts.length > 1) ? Long.parseLong(parts[1]) : 1;
+                //판마다 다른 대국이 되도록 시드에 판 번호를 더함
+                return gameIndex -> new RandomMoveSource(seed + gameIndex);
+            }
+            case "script": {
+                if(parts.length < 2){
+                    throw new IllegalArgumentException("script 설정에 수가 없습니다: " + spec);
+                }
+                List<String> moves = Arrays.asList(parts[1].split(","));
+                return gameIndex -> new ScriptedMoveSource("script", moves);
+            }
+            case "remote": {
+                if(parts.length < 3){
+                    throw new IllegalArgumentException("remote 설정은 remote:<호스트>:<포트> 입니다: " + spec);
+                }
+                String host = parts[1];
+                int port = Integer.parseInt(parts[2]);
+                return gameIndex -> {
+                    try{
+                        return StreamMoveSource.connect(host, port);
+                    } catch (IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("알 수 없는 MoveSource 설정: " + spec);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = 10;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        String specA = "engine:100";
+        String specB = "random";
+        int maxPlies = 400;
+        int hashMegabytes = 8;
+        String fen = Fen.START_POSITION;
+        String pgnPath = null;
+        String jsonPath = null;
+        String bookPath = null;
+        String tablebasePath = null;
+        for(int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--concurrency": concurrency = Integer.parseInt(args[++i]); break;
+                case "--a": specA = args[++i]; break;
+                case "--b": specB = args[++i]; break;
+                case "--max-plies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "--hash": hashMegabytes = Integer.parseInt(args[++i]); break;
+                case "--fen": fen = args[++i]; break;
+                case "--pgn": pgnPath = args[++i]; break;
+                case "--json": jsonPath = args[++i]; break;
+                case "--book": bookPath = args[++i]; break;
+                case "--tb": tablebasePath = args[++i]; break;
+                default: throw new IllegalArgumentException("알 수 없는 옵션: " + args[i]);
+            }
+        }
+
+        OpeningBook book = (bookPath == null) ? null : OpeningBook.open(Paths.get(bookPath));
+        Tablebases tablebases = (tablebasePath == null) ? null : Tablebases.open(Paths.get(tablebasePath));
+        SelfPlay selfPlay = new SelfPlay(games, concurrency, parseSource(specA, hashMegabytes, book, tablebases),
+                parseSource(specB, hashMegabytes, book, tablebases), maxPlies, fen);
+        selfPlay.setTablebases(tablebases);
+        long start = System.nanoTime();
+        List<GameRecord> records;
+        try{
+            records = selfPlay.run();
+        } finally {
+            if(book != null){
+                book.close();
+            }
+            if(tablebases != null){
+                tablebases.close();
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+
+        double score = scoreOfA(records);
+        System.out.printf(Locale.ROOT, "A(%s) 대 B(%s): %.1f / %d (%.1f%%), %dms%n",
+                specA, specB, score, records.size(), 100.0 * score / Math.max(1, records.size()), elapsed);
+
+        if(pgnPath != null){
+            Files.write(Paths.get(pgnPath), toPgn(records, "SelfPlay").getBytes(StandardCharsets.UTF_8));
+            System.out.println("PGN 저장: " + pgnPath);
+        }
+        if(jsonPath != null){
+            Files.write(Paths.get(jsonPath), toJson(records, specA, specB).getBytes(StandardCharsets.UTF_8));
+            System.out.println("JSON 저장: " + jsonPath);
+        }
+    }
+}
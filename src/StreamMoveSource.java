@@ -0,0 +1,92 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+//줄 단위 텍스트 스트림으로 원격 상대에게 수를 묻는 MoveSource (파이프, 소켓 등)
+//보내는 줄: "position <FEN>", "legal <uci> <uci> ...", "go"
+//받는 줄: UCI 표기의 수 하나 (합법이 아니면 "illegal <수>" 를 보내고 다시 받음), "resign" 이면 기권
+//스트림이 끝나면 PackedMove.NONE
+//connect 로 만든 경우 close 가 소켓을 닫음 (SelfPlay 는 대국이 끝나면 닫음)
+final class StreamMoveSource implements MoveSource, Closeable {
+    private final String name;
+    private final BufferedReader in;
+    private final PrintWriter out;
+    //connect 로 연 소켓 (스트림을 넘겨받은 경우 null, 그 스트림은 넘겨준 쪽이 닫음)
+    private final Socket socket;
+
+    StreamMoveSource(String name, BufferedReader in, PrintWriter out){
+        this(name, in, out, null);
+    }
+
+    private StreamMoveSource(String name, BufferedReader in, PrintWriter out, Socket socket){
+        this.name = name;
+        this.in = in;
+        this.out = out;
+        this.socket = socket;
+    }
+
+    //host:port 의 상대에게 TCP 로 연결
+    static StreamMoveSource connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        try{
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            return new StreamMoveSource("remote:" + host + ":" + port, in, out, socket);
+        } catch (IOException e){
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int chooseMove(Board board, MoveList legalMoves){
+        StringBuilder legal = new StringBuilder("legal");
+        for(int i = 0; i < legalMoves.size(); i++){
+            legal.append(' ').append(PackedMove.toUci(legalMoves.get(i)));
+        }
+        out.println("position " + Fen.toFen(board));
+        out.println(legal);
+        out.println("go");
+        out.flush();
+
+        try{
+            String line;
+            while((line = in.readLine()) != null){
+                line = line.trim();
+                if(line.isEmpty()){
+                    continue;
+                }
+                if(line.equals("resign")){
+                    return PackedMove.NONE;
+                }
+                int move = PackedMove.findUci(legalMoves, line);
+                if(move != PackedMove.NONE){
+                    return move;
+                }
+                out.println("illegal " + line);
+                out.flush();
+            }
+            return PackedMove.NONE;
+        } catch (IOException e){
+            throw new UncheckedIOException(name + " 입력을 읽지 못했습니다", e);
+        }
+    }
+
+    @Override
+    public String getName(){
+        return name;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(socket != null){
+            socket.close();
+        }
+    }
+}
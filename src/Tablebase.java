@@ -0,0 +1,555 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+//기물 구성 하나(예: KQvKR)의 엔드게임 테이블
+//국면마다 1바이트 값: 0 무승부, 1..126 둘 차례가 n수 만에 메이트, 128+m 둘 차례가 m수 뒤 메이트 당함, 255 불가능한 국면
+//테이블 안에서 "백"은 이름의 앞쪽(더 강한 쪽)이고, 실제 보드에서 흑이 강한 쪽이면 상하를 뒤집고 색을 바꿔 찾음
+//번호 = ((킹 칸 번호 * 64 + 둘째 기물 칸) * 64 + ...) * 2 + 둘 차례(백 0, 흑 1)
+//  폰이 없으면 백 킹을 a1-d1-d4 삼각형(10칸)으로, 폰이 있으면 a-d 열(32칸)로 옮기는 대칭 변환을 모든 기물에 적용
+//파일:
+//  0..3   "SWPT"
+//  4..7   형식 버전
+//  8..9   이름 길이, 이어서 이름(ASCII)
+//  이후   국면 수(long), 블록 크기(int), 블록 수(int), 블록 위치표(long, 블록 수 + 1개, 데이터 시작 기준)
+//  이후   블록마다 deflate 로 압축한 값
+//파일은 매핑해 두고 읽을 때 블록 하나씩 풀며, 스레드마다 최근 블록 몇 개를 캐시함
+final class Tablebase implements Closeable {
+    static final int MAGIC = 0x53575054;
+    static final int VERSION = 1;
+    static final String EXTENSION = ".tb";
+    static final int MAX_PIECES = 5;
+
+    static final int DRAW = 0;
+    static final int LOSS = 128;
+    static final int ILLEGAL = 255;
+    //값 1바이트에 담을 수 있는 최대 수 거리
+    static final int MAX_DISTANCE = 126;
+
+    //압축 단위 (국면 수)
+    static final int BLOCK_SIZE = 8192;
+    //스레드마다 캐시할 블록 수 (2의 거듭제곱)
+    private static final int CACHE_BLOCKS = 32;
+
+    //이름에 쓰는 기물 순서와 글자 (킹 다음)
+    private static final PieceType[] NAME_ORDER = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN
+    };
+    private static final String NAME_LETTERS = "QRBNP";
+
+    //킹 칸 -> 킹 번호 (대칭 변환 뒤 올 수 없는 칸은 -1) 와 그 역
+    private static final int[] KING_INDEX_PAWNLESS = new int[64];
+    private static final int[] KING_INDEX_PAWNS = new int[64];
+    private static final int[] KING_SQUARES_PAWNLESS = new int[10];
+    private static final int[] KING_SQUARES_PAWNS = new int[32];
+
+    static {
+        int pawnless = 0;
+        int pawns = 0;
+        for(int square = 0; square < 64; square++){
+            int x = square % 8;
+            int rank = 7 - square / 8;
+            KING_INDEX_PAWNLESS[square] = -1;
+            KING_INDEX_PAWNS[square] = -1;
+            if(x <= 3 && rank <= x){
+                KING_SQUARES_PAWNLESS[pawnless] = square;
+                KING_INDEX_PAWNLESS[square] = pawnless++;
+            }
+            if(x <= 3){
+                KING_SQUARES_PAWNS[pawns] = square;
+                KING_INDEX_PAWNS[square] = pawns++;
+            }
+        }
+    }
+
+    private final String name;
+    //칸 번호 자리별 기물 (0 은 백 킹, 백 기물들, 흑 킹, 흑 기물들 순)
+    private final PieceType[] types;
+    private final Color[] colors;
+    //앞 자리 중 같은 색, 같은 종류 기물 수 (비트보드에서 몇 번째 비트를 쓸지)
+    private final int[] sameBefore;
+    private final boolean hasPawns;
+    private final long size;
+    private final long materialKey;
+    private final long flippedKey;
+
+    //값: 생성 중이거나 통째로 읽은 경우 values, 매핑한 경우 data + 블록 위치표
+    private final byte[] values;
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final long[] blockOffsets;
+    private final ThreadLocal<BlockCache> caches;
+
+    //스레드마다 가진 블록 캐시 (블록 번호 % CACHE_BLOCKS 자리에 저장)
+    private static final class BlockCache {
+        final int[] blocks = new int[CACHE_BLOCKS];
+        final byte[][] data = new byte[CACHE_BLOCKS][];
+        final Inflater inflater = new Inflater();
+
+        BlockCache(){
+            Arrays.fill(blocks, -1);
+        }
+    }
+
+    private Tablebase(String name, byte[] values, FileChannel channel, MappedByteBuffer data, long[] blockOffsets){
+        this.name = name;
+        int split = name.indexOf('v');
+        if(split < 0 || name.indexOf('v', split + 1) >= 0){
+            throw new IllegalArgumentException("테이블 이름은 KQvK 형식이어야 합니다: " + name);
+        }
+        String white = name.substring(0, split);
+        String black = name.substring(split + 1);
+        int count = white.length() + black.length();
+        if(count < 3 || count > MAX_PIECES){
+            throw new IllegalArgumentException("기물은 3개 이상 " + MAX_PIECES + "개 이하여야 합니다: " + name);
+        }
+        this.types = new PieceType[count];
+        this.colors = new Color[count];
+        this.sameBefore = new int[count];
+        parseSide(white, Color.WHITE, 0);
+        parseSide(black, Color.BLACK, white.length());
+        boolean pawns = false;
+        for(int i = 0; i < count; i++){
+            pawns |= types[i] == PieceType.PAWN;
+            for(int j = 0; j < i; j++){
+                if(types[j] == types[i] && colors[j] == colors[i]){
+                    sameBefore[i]++;
+                }
+            }
+        }
+        this.hasPawns = pawns;
+        long kings = pawns ? KING_SQUARES_PAWNS.length : KING_SQUARES_PAWNLESS.length;
+        this.size = kings * (1L << (6 * (count - 1))) * 2;
+        long key = 0;
+        for(int i = 0; i < count; i++){
+            if(types[i] != PieceType.KING){
+                key += 1L << keyShift(colors[i], types[i]);
+            }
+        }
+        this.materialKey = key;
+        this.flippedKey = flipKey(key);
+        if(!name.equals(nameOf(key))){
+            throw new IllegalArgumentException("테이블 이름은 강한 쪽을 앞에, 기물을 QRBNP 순으로 씁니다: " + nameOf(key));
+        }
+
+        this.values = values;
+        this.channel = channel;
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.caches = (data == null) ? null : ThreadLocal.withInitial(BlockCache::new);
+        if(values != null && values.length != size){
+            throw new IllegalArgumentException("값 개수가 맞지 않습니다: " + values.length + " != " + size);
+        }
+    }
+
+    //생성용 빈 테이블 (모든 값이 0)
+    static Tablebase create(String name){
+        Tablebase shape = new Tablebase(name, null, null, null, null);
+        if(shape.size > Integer.MAX_VALUE - 8){
+            throw new IllegalArgumentException("테이블이 너무 큽니다: " + name);
+        }
+        return new Tablebase(name, new byte[(int) shape.size], null, null, null);
+    }
+
+    private void parseSide(String side, Color color, int first){
+        if(side.isEmpty() || side.charAt(0) != 'K'){
+            throw new IllegalArgumentException("각 쪽은 K 로 시작해야 합니다: " + name);
+        }
+        types[first] = PieceType.KING;
+        colors[first] = color;
+        for(int i = 1; i < side.length(); i++){
+            int letter = NAME_LETTERS.indexOf(side.charAt(i));
+            if(letter < 0){
+                throw new IllegalArgumentException("알 수 없는 기물: " + side.charAt(i) + " (" + name + ")");
+            }
+            types[first + i] = NAME_ORDER[letter];
+            colors[first + i] = color;
+        }
+    }
+
+    String getName(){
+        return name;
+    }
+
+    long size(){
+        return size;
+    }
+
+    int getPieceCount(){
+        return types.length;
+    }
+
+    PieceType getType(int slot){
+        return types[slot];
+    }
+
+    Color getColor(int slot){
+        return colors[slot];
+    }
+
+    long getMaterialKey(){
+        return materialKey;
+    }
+
+    long getFlippedKey(){
+        return flippedKey;
+    }
+
+    //값 (매핑한 테이블은 여러 스레드에서 동시에 불러도 됨)
+    int get(long index){
+        if(values != null){
+            return values[(int) index] & 0xFF;
+        }
+        int block = (int) (index / BLOCK_SIZE);
+        BlockCache cache = caches.get();
+        int slot = block & (CACHE_BLOCKS - 1);
+        if(cache.blocks[slot] != block){
+            cache.data[slot] = inflate(block, cache.data[slot], cache.inflater);
+            cache.blocks[slot] = block;
+        }
+        return cache.data[slot][(int) (index % BLOCK_SIZE)] & 0xFF;
+    }
+
+    //생성 중 값 기록 (서로 다른 번호는 여러 스레드에서 동시에 기록해도 됨)
+    void set(long index, int value){
+        values[(int) index] = (byte) value;
+    }
+
+    //board 국면의 번호. flip 이면 상하를 뒤집고 색을 바꾼 국면의 번호
+    //기물 구성이 이 테이블과 같아야 함 (앙파상과 캐슬링 권리는 보지 않음)
+    long index(Board board, boolean flip){
+        int flipMask = flip ? 56 : 0;
+        Color strong = flip ? Color.BLACK : Color.WHITE;
+        Color weak = flip ? Color.WHITE : Color.BLACK;
+        int king = (board.getKingSquare(strong) ^ flipMask);
+        int transform = transformOf(king);
+        long index = hasPawns
+                ? KING_INDEX_PAWNS[transform(king, transform)]
+                : KING_INDEX_PAWNLESS[transform(king, transform)];
+        for(int i = 1; i < types.length; i++){
+            Color color = (colors[i] == Color.WHITE) ? strong : weak;
+            long pieces = board.getPieceBitboard(color, types[i]);
+            for(int k = 0; k < sameBefore[i]; k++){
+                pieces &= pieces - 1;
+            }
+            int square = Long.numberOfTrailingZeros(pieces) ^ flipMask;
+            index = index * 64 + transform(square, transform);
+        }
+        return index * 2 + ((board.getSideToMove() == strong) ? 0 : 1);
+    }
+
+    //번호를 자리별 칸 번호로 풀고 둘 차례(테이블 기준 백 0, 흑 1)를 반환
+    int decode(long index, int[] squares){
+        int side = (int) (index & 1);
+        index >>>= 1;
+        for(int i = types.length - 1; i >= 1; i--){
+            squares[i] = (int) (index & 63);
+            index >>>= 6;
+        }
+        squares[0] = hasPawns ? KING_SQUARES_PAWNS[(int) index] : KING_SQUARES_PAWNLESS[(int) index];
+        return side;
+    }
+
+    //백 킹 칸으로 대칭 변환을 정함 (1: 좌우, 2: 상하, 4: 대각선)
+    private int transformOf(int king){
+        int x = king % 8;
+        int rank = 7 - king / 8;
+        int transform = 0;
+        if(x > 3){
+            transform |= 1;
+            x = 7 - x;
+        }
+        if(!hasPawns){
+            if(rank > 3){
+                transform |= 2;
+                rank = 7 - rank;
+            }
+            if(rank > x){
+                transform |= 4;
+            }
+        }
+        return transform;
+    }
+
+    private static int transform(int square, int transform){
+        int x = square % 8;
+        int y = square / 8;
+        if((transform & 1) != 0){
+            x = 7 - x;
+        }
+        if((transform & 2) != 0){
+            y = 7 - y;
+        }
+        if((transform & 4) != 0){
+            //열과 행(rank = 7 - y)을 맞바꿈
+            int newX = 7 - y;
+            y = 7 - x;
+            x = newX;
+        }
+        return y * 8 + x;
+    }
+
+    //값 해석
+    static boolean isWin(int value){
+        return value > DRAW && value < LOSS;
+    }
+
+    static boolean isLoss(int value){
+        return value >= LOSS && value < ILLEGAL;
+    }
+
+    //메이트까지 둘 차례 쪽의 수 (무승부면 0)
+    static int distance(int value){
+        return isLoss(value) ? value - LOSS : (isWin(value) ? value : 0);
+    }
+
+    //메이트까지 반수 (이기는 쪽은 마지막 수까지, 지는 쪽은 메이트 당할 때까지)
+    static int pliesToMate(int value){
+        return isWin(value) ? 2 * value - 1 : 2 * (value - LOSS);
+    }
+
+    static String describe(int value){
+        if(isWin(value)){
+            return "승 (" + value + "수 메이트)";
+        }
+        if(isLoss(value)){
+            return (value == LOSS) ? "패 (체크메이트)" : "패 (" + (value - LOSS) + "수 뒤 메이트)";
+        }
+        return (value == ILLEGAL) ? "불가능한 국면" : "무승부";
+    }
+
+    //기물 구성 키: (색, 킹 외 종류) 별 개수를 4비트씩 담음 (흑은 20비트 위)
+    static long materialKey(Board board){
+        long key = 0;
+        for(int c = 0; c < 2; c++){
+            Color color = (c == 0) ? Color.WHITE : Color.BLACK;
+            for(int t = 0; t < NAME_ORDER.length; t++){
+                long count = Long.bitCount(board.getPieceBitboard(color, NAME_ORDER[t]));
+                key += count << keyShift(color, NAME_ORDER[t]);
+            }
+        }
+        return key;
+    }
+
+    //키에서 기물 하나에 해당하는 값 (키에 더하고 빼서 잡기, 프로모션 뒤의 구성을 만듦)
+    static long unit(Color color, PieceType type){
+        return 1L << keyShift(color, type);
+    }
+
+    private static int keyShift(Color color, PieceType type){
+        return 4 * (color.ordinal() * 5 + type.ordinal());
+    }
+
+    //색을 바꾼 기물 구성의 키
+    static long flipKey(long key){
+        return ((key & 0xFFFFFL) << 20) | (key >>> 20);
+    }
+
+    static int count(long key, Color color, PieceType type){
+        return (int) ((key >>> keyShift(color, type)) & 15);
+    }
+
+    //키의 이름 (강한 쪽을 앞에 씀, 예: 흑만 퀸이 있으면 KQvK)
+    static String nameOf(long key){
+        String white = sideName(key, Color.WHITE);
+        String black = sideName(key, Color.BLACK);
+        return (compareSides(white, black) >= 0) ? white + "v" + black : black + "v" + white;
+    }
+
+    //강한 쪽이 흑인 키인지 (테이블에서 찾을 때 뒤집어야 함)
+    static boolean isFlipped(long key){
+        return compareSides(sideName(key, Color.WHITE), sideName(key, Color.BLACK)) < 0;
+    }
+
+    private static String sideName(long key, Color color){
+        StringBuilder sb = new StringBuilder("K");
+        for(int t = 0; t < NAME_ORDER.length; t++){
+            for(int n = count(key, color, NAME_ORDER[t]); n > 0; n--){
+                sb.append(NAME_LETTERS.charAt(t));
+            }
+        }
+        return sb.toString();
+    }
+
+    //기물 수, 기물 가치 합, 글자 순으로 비교
+    private static int compareSides(String a, String b){
+        if(a.length() != b.length()){
+            return a.length() - b.length();
+        }
+        int value = sideValue(a) - sideValue(b);
+        if(value != 0){
+            return value;
+        }
+        //글자 순서가 QRBNP 이므로 앞 글자가 작은 쪽이 강함
+        return b.compareTo(a);
+    }
+
+    private static int sideValue(String side){
+        int value = 0;
+        for(int i = 1; i < side.length(); i++){
+            value += "95331".charAt(NAME_LETTERS.indexOf(side.charAt(i))) - '0';
+        }
+        return value;
+    }
+
+    //블록 단위로 압축해 파일로 저장
+    void write(Path path) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        int blockCount = (int) ((size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        int headerSize = 10 + nameBytes.length + 16;
+        long dataStart = headerSize + 8L * (blockCount + 1);
+        long[] offsets = new long[blockCount + 1];
+
+        try(FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            byte[] compressed = new byte[BLOCK_SIZE + BLOCK_SIZE / 2 + 64];
+            long position = dataStart;
+            for(int block = 0; block < blockCount; block++){
+                int start = block * BLOCK_SIZE;
+                int length = (int) Math.min(BLOCK_SIZE, size - start);
+                deflater.reset();
+                deflater.setInput(values, start, length);
+                deflater.finish();
+                int n = 0;
+                while(!deflater.finished()){
+                    n += deflater.deflate(compressed, n, compressed.length - n);
+                }
+                offsets[block] = position - dataStart;
+                writeFully(out, ByteBuffer.wrap(compressed, 0, n), position);
+                position += n;
+            }
+            offsets[blockCount] = position - dataStart;
+            deflater.end();
+
+            ByteBuffer header = ByteBuffer.allocate((int) dataStart);
+            header.putInt(MAGIC).putInt(VERSION).putShort((short) nameBytes.length).put(nameBytes);
+            header.putLong(size).putInt(BLOCK_SIZE).putInt(blockCount);
+            for(int i = 0; i <= blockCount; i++){
+                header.putLong(offsets[i]);
+            }
+            header.flip();
+            writeFully(out, header, 0);
+        }
+    }
+
+    //파일을 매핑해 염 (inMemory 면 모두 풀어 힙에 올림, 생성 중 하위 테이블처럼 자주 읽을 때)
+    static Tablebase open(Path path, boolean inMemory) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            ByteBuffer fixed = ByteBuffer.allocate(10);
+            readFully(channel, fixed, 0);
+            fixed.flip();
+            if(fixed.getInt() != MAGIC){
+                throw new IOException("테이블 파일이 아닙니다: " + path);
+            }
+            int version = fixed.getInt();
+            if(version != VERSION){
+                throw new IOException("지원하지 않는 형식 버전: " + version);
+            }
+            int nameLength = fixed.getShort();
+            ByteBuffer header = ByteBuffer.allocate(nameLength + 16);
+            readFully(channel, header, 10);
+            header.flip();
+            byte[] nameBytes = new byte[nameLength];
+            header.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.US_ASCII);
+            long size = header.getLong();
+            int blockSize = header.getInt();
+            int blockCount = header.getInt();
+            if(blockSize != BLOCK_SIZE || (long) blockCount * BLOCK_SIZE < size){
+                throw new IOException("블록 정보가 맞지 않습니다: " + path);
+            }
+            ByteBuffer table = ByteBuffer.allocate(8 * (blockCount + 1));
+            long tableStart = 10 + nameLength + 16;
+            readFully(channel, table, tableStart);
+            table.flip();
+            long[] offsets = new long[blockCount + 1];
+            for(int i = 0; i <= blockCount; i++){
+                offsets[i] = table.getLong();
+            }
+            long dataStart = tableStart + table.capacity();
+            long dataLength = offsets[blockCount];
+            if(dataLength > Integer.MAX_VALUE){
+                throw new IOException("압축 데이터가 2GB 를 넘습니다: " + path);
+            }
+            if(channel.size() < dataStart + dataLength){
+                throw new IOException("파일이 잘렸습니다: " + path);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, dataLength);
+            Tablebase mapped = new Tablebase(name, null, channel, data, offsets);
+            if(mapped.size != size){
+                throw new IOException("국면 수가 맞지 않습니다: " + path);
+            }
+            if(!inMemory){
+                return mapped;
+            }
+            byte[] values = new byte[(int) size];
+            Inflater inflater = new Inflater();
+            byte[] block = null;
+            for(int i = 0; i < blockCount; i++){
+                block = mapped.inflate(i, block, inflater);
+                int start = i * BLOCK_SIZE;
+                System.arraycopy(block, 0, values, start, (int) Math.min(BLOCK_SIZE, size - start));
+            }
+            inflater.end();
+            channel.close();
+            return new Tablebase(name, values, null, null, null);
+        } catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    //block 번째 블록을 풀어 buffer 에 담음 (buffer 가 없으면 새로 만듦)
+    private byte[] inflate(int block, byte[] buffer, Inflater inflater){
+        if(buffer == null){
+            buffer = new byte[BLOCK_SIZE];
+        }
+        int start = (int) blockOffsets[block];
+        int length = (int) (blockOffsets[block + 1] - blockOffsets[block]);
+        inflater.reset();
+        inflater.setInput(data.slice(start, length));
+        try{
+            int n = 0;
+            while(!inflater.finished() && n < buffer.length){
+                n += inflater.inflate(buffer, n, buffer.length - n);
+            }
+        } catch (DataFormatException e){
+            throw new IllegalStateException("테이블 블록이 손상되었습니다: " + name + " " + block, e);
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(channel != null){
+            channel.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            int n = channel.read(buffer, position);
+            if(n < 0){
+                throw new IOException("파일이 너무 짧습니다");
+            }
+            position += n;
+        }
+    }
+}
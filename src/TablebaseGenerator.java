@@ -0,0 +1,394 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+//엔드게임 테이블을 후퇴 분석(retrograde)으로 만드는 도구
+//잡기나 프로모션으로 옮겨 가는 하위 테이블을 먼저 만들고(파일이 있으면 읽음), 그다음 이 테이블을 채움
+//  0회: 불가능한 국면(겹침, 1/8줄의 폰, 둘 차례가 아닌 킹이 체크)과 체크메이트(0수 뒤 패), 스테일메이트(무승부) 표시
+//  t회: 아직 모르는 국면 중 t-1수 뒤 지는 자식이 있으면 t수 만에 승,
+//       모든 자식이 이기는 국면이면 가장 늦게 이기는 자식의 수만큼 뒤에 패
+//  더 바뀌는 국면이 없고 하위 테이블에서 올 수 있는 거리도 지나면 끝, 남은 국면은 무승부
+//국면은 Board 에 기물을 놓고 MoveGenerator 의 합법 수와 makeMove / unmakeMove 로 자식을 구하므로 규칙은 엔진과 같음
+//단, 테이블 번호에는 앙파상과 캐슬링이 없으므로 두 칸 전진 뒤의 앙파상 잡기는 반영하지 않음
+//번호 범위를 작은 덩어리로 나누어 여러 스레드가 가져가며 채움 (한 회 안에서 읽는 값과 쓰는 값이 겹치지 않아 결과가 스레드 수와 무관)
+//사용법: java TablebaseGenerator <이름...> [--dir 디렉터리] [--threads N]   (예: KQvK KRvK KPvK)
+final class TablebaseGenerator {
+    //스레드가 한 번에 가져가는 국면 수
+    private static final int CHUNK = 4096;
+
+    private final Path directory;
+    private final int threadCount;
+    //만들었거나 읽은 테이블 (하위 테이블로 찾을 때 쓰므로 메모리에 풀어 둠)
+    private final Tablebases tables = new Tablebases();
+    private final Map<String, Tablebase> byName = new HashMap<>();
+
+    TablebaseGenerator(Path directory, int threadCount){
+        this.directory = directory;
+        this.threadCount = threadCount;
+    }
+
+    //name 테이블을 만들어 파일로 저장하고 반환 (이미 파일이 있으면 읽음)
+    Tablebase generate(String name) throws IOException, InterruptedException {
+        Tablebase table = byName.get(name);
+        if(table != null){
+            return table;
+        }
+        Path path = directory.resolve(name + Tablebase.EXTENSION);
+        if(Files.exists(path)){
+            table = Tablebase.open(path, true);
+            System.out.println(name + ": 파일에서 읽음");
+        }
+        else{
+            table = Tablebase.create(name);
+            int maxSubLoss = 0;
+            List<String> subtables = subtableNames(table.getMaterialKey());
+            for(int i = 0; i < subtables.size(); i++){
+                maxSubLoss = Math.max(maxSubLoss, maxLoss(generate(subtables.get(i))));
+            }
+            fill(table, maxSubLoss);
+            table.write(path);
+            printStats(table, path);
+        }
+        byName.put(name, table);
+        tables.add(table);
+        return table;
+    }
+
+    //한 수로 옮겨 갈 수 있는 기물 구성 (잡기, 프로모션, 잡으며 프로모션). 킹만 남는 구성은 뺌
+    static List<String> subtableNames(long key){
+        PieceType[] captured = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN };
+        PieceType[] promoted = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT };
+        Set<Long> keys = new LinkedHashSet<>();
+        for(int c = 0; c < 2; c++){
+            Color mover = (c == 0) ? Color.WHITE : Color.BLACK;
+            Color opponent = (c == 0) ? Color.BLACK : Color.WHITE;
+            //잡지 않는 경우(-1)와 상대 기물 하나를 잡는 경우
+            for(int t = -1; t < captured.length; t++){
+                long afterCapture = key;
+                if(t >= 0){
+                    if(Tablebase.count(key, opponent, captured[t]) == 0){
+                        continue;
+                    }
+                    afterCapture -= Tablebase.unit(opponent, captured[t]);
+                    keys.add(afterCapture);
+                }
+                if(Tablebase.count(key, mover, PieceType.PAWN) == 0){
+                    continue;
+                }
+                for(int p = 0; p < promoted.length; p++){
+                    keys.add(afterCapture - Tablebase.unit(mover, PieceType.PAWN) + Tablebase.unit(mover, promoted[p]));
+                }
+            }
+        }
+        List<String> names = new ArrayList<>();
+        for(long subKey : keys){
+            if(subKey != 0){
+                names.add(Tablebase.nameOf(subKey));
+            }
+        }
+        return names;
+    }
+
+    //테이블에서 가장 긴 패배 거리
+    private static int maxLoss(Tablebase table){
+        int max = 0;
+        for(long i = 0; i < table.size(); i++){
+            int value = table.get(i);
+            if(Tablebase.isLoss(value)){
+                max = Math.max(max, Tablebase.distance(value));
+            }
+        }
+        return max;
+    }
+
+    //table 의 모든 값을 채움 (하위 테이블은 이미 tables 에 있어야 함)
+    private void fill(Tablebase table, int maxSubLoss) throws InterruptedException {
+        long start = System.nanoTime();
+        Worker[] workers = new Worker[threadCount];
+        for(int i = 0; i < threadCount; i++){
+            workers[i] = new Worker(table);
+        }
+        runPass(workers, Worker.INIT, 0);
+        int distance = 1;
+        while(true){
+            long changes = runPass(workers, Worker.WIN, distance);
+            changes += runPass(workers, Worker.LOSS, distance);
+            if(changes == 0 && distance > maxSubLoss + 1){
+                break;
+            }
+            distance++;
+            if(distance > Tablebase.MAX_DISTANCE){
+                throw new IllegalStateException(table.getName() + ": 메이트 거리가 " + Tablebase.MAX_DISTANCE + "수를 넘습니다");
+            }
+        }
+        System.out.printf(Locale.ROOT, "%s: %d회, %.3f초 (스레드 %d)%n",
+                table.getName(), distance, (System.nanoTime() - start) / 1e9, threadCount);
+    }
+
+    //모든 작업 스레드로 한 회를 돌리고 바뀐 국면 수를 반환
+    private long runPass(Worker[] workers, int pass, int distance) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        Thread[] threads = new Thread[workers.length];
+        for(int i = 0; i < workers.length; i++){
+            workers[i].begin(pass, distance, next);
+            threads[i] = new Thread(workers[i], "tablebase-" + (i + 1));
+            threads[i].start();
+        }
+        long changes = 0;
+        for(int i = 0; i < workers.length; i++){
+            threads[i].join();
+            changes += workers[i].changes;
+        }
+        return changes;
+    }
+
+    private void printStats(Tablebase table, Path path) throws IOException {
+        long wins = 0;
+        long draws = 0;
+        long losses = 0;
+        long illegal = 0;
+        int longest = 0;
+        long longestIndex = -1;
+        for(long i = 0; i < table.size(); i++){
+            int value = table.get(i);
+            if(Tablebase.isWin(value)){
+                wins++;
+                if(value > longest){
+                    longest = value;
+                    longestIndex = i;
+                }
+            }
+            else if(Tablebase.isLoss(value)){
+                losses++;
+            }
+            else if(value == Tablebase.ILLEGAL){
+                illegal++;
+            }
+            else{
+                draws++;
+            }
+        }
+        System.out.printf(Locale.ROOT, "%s: 국면 %d (승 %d, 무 %d, 패 %d, 불가능 %d), 최장 메이트 %d수%n",
+                table.getName(), table.size(), wins, draws, losses, illegal, longest);
+        if(longestIndex >= 0){
+            System.out.println("  예: " + Fen.toFen(positionOf(table, longestIndex)));
+        }
+        System.out.printf(Locale.ROOT, "  크기 %d -> %d 바이트 (%.1f%%)%n",
+                table.size(), Files.size(path), 100.0 * Files.size(path) / table.size());
+    }
+
+    //번호의 국면을 새 보드로 만듦 (출력용)
+    static Board positionOf(Tablebase table, long index){
+        int[] squares = new int[table.getPieceCount()];
+        int side = table.decode(index, squares);
+        Board board = Board.empty();
+        for(int i = 0; i < squares.length; i++){
+            int y = squares[i] / 8;
+            int x = squares[i] % 8;
+            Piece piece = Board.createPiece(table.getType(i), table.getColor(i), Position.of(y, x));
+            piece.setHasMoved(Fen.hasMoved(table.getType(i), table.getColor(i), y, x, 0));
+            board.setPieceAt(piece.getPosition(), piece);
+        }
+        board.setSideToMove((side == 0) ? Color.WHITE : Color.BLACK);
+        return board;
+    }
+
+    //번호 범위를 덩어리로 나누어 가져가며 한 회의 값을 채우는 작업
+    //보드, 수 생성기, 기물 객체를 한 번만 만들고 국면마다 기물 위치만 바꿔 다시 씀
+    private final class Worker implements Runnable {
+        static final int INIT = 0;
+        static final int WIN = 1;
+        static final int LOSS = 2;
+
+        private final Tablebase table;
+        private final Board board = Board.empty();
+        private final MoveGenerator generator = new MoveGenerator(board);
+        private final MoveList moves = new MoveList();
+        private final Piece[] pieces;
+        private final int[] squares;
+        private boolean placed;
+
+        private int pass;
+        private int distance;
+        private AtomicLong next;
+        long changes;
+
+        Worker(Tablebase table){
+            this.table = table;
+            int count = table.getPieceCount();
+            this.pieces = new Piece[count];
+            this.squares = new int[count];
+            for(int i = 0; i < count; i++){
+                pieces[i] = Board.createPiece(table.getType(i), table.getColor(i), Position.ofIndex(0));
+            }
+        }
+
+        void begin(int pass, int distance, AtomicLong next){
+            this.pass = pass;
+            this.distance = distance;
+            this.next = next;
+            this.changes = 0;
+        }
+
+        @Override
+        public void run(){
+            long size = table.size();
+            while(true){
+                long first = next.getAndAdd(CHUNK);
+                if(first >= size){
+                    return;
+                }
+                long last = Math.min(size, first + CHUNK);
+                for(long index = first; index < last; index++){
+                    switch (pass){
+                        case INIT: initialize(index); break;
+                        case WIN: findWin(index); break;
+                        default: findLoss(index);
+                    }
+                }
+            }
+        }
+
+        private void initialize(long index){
+            if(!setup(index)){
+                table.set(index, Tablebase.ILLEGAL);
+                return;
+            }
+            Color side = board.getSideToMove();
+            Color opponent = (side == Color.WHITE) ? Color.BLACK : Color.WHITE;
+            if(generator.isKingInCheck(opponent)){
+                table.set(index, Tablebase.ILLEGAL);
+                return;
+            }
+            moves.clear();
+            generator.generateLegalMoves(moves);
+            if(moves.isEmpty() && generator.isKingInCheck(side)){
+                table.set(index, Tablebase.LOSS);
+                changes++;
+            }
+        }
+
+        //distance - 1 수 뒤 지는 자식이 있으면 distance 수 만에 승
+        private void findWin(long index){
+            if(table.get(index) != Tablebase.DRAW || !setup(index)){
+                return;
+            }
+            moves.clear();
+            generator.generateLegalMoves(moves);
+            int target = Tablebase.LOSS + distance - 1;
+            for(int i = 0; i < moves.size(); i++){
+                UndoInfo undo = board.makeMove(moves.get(i));
+                int value = childValue();
+                board.unmakeMove(undo);
+                if(value == target){
+                    table.set(index, distance);
+                    changes++;
+                    return;
+                }
+            }
+        }
+
+        //모든 자식이 이기는 국면이면 가장 늦게 이기는 자식의 거리만큼 뒤에 패
+        private void findLoss(long index){
+            if(table.get(index) != Tablebase.DRAW || !setup(index)){
+                return;
+            }
+            moves.clear();
+            generator.generateLegalMoves(moves);
+            //스테일메이트는 무승부로 남김
+            if(moves.isEmpty()){
+                return;
+            }
+            int longest = 0;
+            for(int i = 0; i < moves.size(); i++){
+                UndoInfo undo = board.makeMove(moves.get(i));
+                int value = childValue();
+                board.unmakeMove(undo);
+                if(!Tablebase.isWin(value)){
+                    return;
+                }
+                longest = Math.max(longest, value);
+            }
+            table.set(index, Tablebase.LOSS + longest);
+            changes++;
+        }
+
+        //수를 둔 뒤 국면의 값 (같은 구성이면 이 테이블, 아니면 하위 테이블)
+        private int childValue(){
+            long key = Tablebase.materialKey(board);
+            if(key == table.getMaterialKey()){
+                return table.get(table.index(board, false));
+            }
+            if(key == table.getFlippedKey()){
+                return table.get(table.index(board, true));
+            }
+            int value = tables.probeMaterial(board);
+            if(value == Tablebases.NOT_FOUND){
+                throw new IllegalStateException("하위 테이블이 없습니다: " + Tablebase.nameOf(key));
+            }
+            return value;
+        }
+
+        //번호의 국면을 보드에 놓음 (겹치거나 폰이 1/8줄에 있으면 false)
+        private boolean setup(long index){
+            int side = table.decode(index, squares);
+            long occupied = 0;
+            for(int i = 0; i < squares.length; i++){
+                long bit = 1L << squares[i];
+                if((occupied & bit) != 0){
+                    return false;
+                }
+                occupied |= bit;
+                int y = squares[i] / 8;
+                if(table.getType(i) == PieceType.PAWN && (y == 0 || y == 7)){
+                    return false;
+                }
+            }
+            if(placed){
+                for(int i = 0; i < pieces.length; i++){
+                    board.setPieceAt(pieces[i].getPosition(), null);
+                }
+            }
+            for(int i = 0; i < pieces.length; i++){
+                Position position = Position.ofIndex(squares[i]);
+                pieces[i].setPosition(position);
+                pieces[i].setHasMoved(Fen.hasMoved(table.getType(i), table.getColor(i), position.getY(), position.getX(), 0));
+                board.setPieceAt(position, pieces[i]);
+            }
+            placed = true;
+            board.setSideToMove((side == 0) ? Color.WHITE : Color.BLACK);
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> names = new ArrayList<>();
+        Path directory = Paths.get("tablebases");
+        int threads = Runtime.getRuntime().availableProcessors();
+        for(int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--dir": directory = Paths.get(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default: names.add(args[i]);
+            }
+        }
+        if(names.isEmpty()){
+            System.out.println("사용법: java TablebaseGenerator <이름...> [--dir 디렉터리] [--threads N]");
+            return;
+        }
+        Files.createDirectories(directory);
+        TablebaseGenerator generator = new TablebaseGenerator(directory, threads);
+        for(int i = 0; i < names.size(); i++){
+            generator.generate(names.get(i));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//여러 기물 구성의 엔드게임 테이블을 모아 보드 국면으로 찾는 모음
+//기물 구성 키로 테이블을 고르고, 강한 쪽이 흑이면 뒤집어서 찾음
+//테이블은 앙파상과 캐슬링을 모르므로 그런 권리가 남은 국면은 찾지 않음 (50수 규칙도 보지 않음)
+//사용법: java Tablebases <디렉터리> [FEN]
+final class Tablebases implements Closeable {
+    //테이블이 없거나 찾을 수 없는 국면
+    static final int NOT_FOUND = -1;
+
+    //기물 구성 키(강한 쪽이 백) -> 테이블
+    private final Map<Long, Tablebase> tables = new HashMap<>();
+    private int maxPieces;
+
+    void add(Tablebase table){
+        tables.put(table.getMaterialKey(), table);
+        maxPieces = Math.max(maxPieces, table.getPieceCount());
+    }
+
+    //디렉터리의 테이블 파일을 모두 매핑해 염
+    static Tablebases open(Path directory) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Tablebase.EXTENSION)){
+            for(Path file : files){
+                tablebases.add(Tablebase.open(file, false));
+            }
+        } catch (IOException | RuntimeException e){
+            tablebases.close();
+            throw e;
+        }
+        return tablebases;
+    }
+
+    int size(){
+        return tables.size();
+    }
+
+    int getMaxPieces(){
+        return maxPieces;
+    }
+
+    boolean contains(String name){
+        for(Tablebase table : tables.values()){
+            if(table.getName().equals(name)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //board 국면의 둘 차례 기준 값 (Tablebase.DRAW / 승 / 패, 없으면 NOT_FOUND)
+    //기물 수를 먼저 보므로 기물이 많은 국면에서는 비용이 거의 없음
+    int probe(Board board){
+        if(Long.bitCount(board.getOccupancy()) > maxPieces){
+            return NOT_FOUND;
+        }
+        if(board.getCastlingRights() != 0 || board.getEnPassantFile() >= 0){
+            return NOT_FOUND;
+        }
+        return probeMaterial(board);
+    }
+
+    //앙파상, 캐슬링 확인 없이 기물 배치만으로 찾음 (생성기가 하위 테이블을 읽을 때)
+    int probeMaterial(Board board){
+        long key = Tablebase.materialKey(board);
+        //킹만 남으면 무승부
+        if(key == 0){
+            return Tablebase.DRAW;
+        }
+        Tablebase table = tables.get(key);
+        if(table != null){
+            return table.get(table.index(board, false));
+        }
+        table = tables.get(Tablebase.flipKey(key));
+        if(table != null){
+            return table.get(table.index(board, true));
+        }
+        return NOT_FOUND;
+    }
+
+    //테이블이 가장 좋다고 보는 수 (이기면 가장 빠른 메이트, 지면 가장 늦은 메이트, 없으면 PackedMove.NONE)
+    int bestMove(Board board, MoveList legalMoves){
+        if(probe(board) == NOT_FOUND){
+            return PackedMove.NONE;
+        }
+        int best = PackedMove.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for(int i = 0; i < legalMoves.size(); i++){
+            int move = legalMoves.get(i);
+            UndoInfo undo = board.makeMove(move);
+            int value = probeMaterial(board);
+            board.unmakeMove(undo);
+            if(value == NOT_FOUND){
+                return PackedMove.NONE;
+            }
+            //상대 기준 값이므로 상대가 빨리 질수록, 늦게 이길수록 좋음
+            int rank;
+            if(Tablebase.isLoss(value)){
+                rank = 1000 - Tablebase.distance(value);
+            }
+            else if(Tablebase.isWin(value)){
+                rank = -1000 + Tablebase.distance(value);
+            }
+            else{
+                rank = 0;
+            }
+            if(rank > bestRank){
+                bestRank = rank;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for(Tablebase table : tables.values()){
+            try{
+                table.close();
+            } catch (IOException e){
+                error = e;
+            }
+        }
+        tables.clear();
+        if(error != null){
+            throw error;
+        }
+    }
+
+    //디렉터리의 테이블 목록과 FEN 국면의 값, 수마다의 값을 출력
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1){
+            System.out.println("사용법: java Tablebases <디렉터리> [FEN]");
+            return;
+        }
+        try(Tablebases tablebases = open(Paths.get(args[0]))){
+            List<String> names = new ArrayList<>();
+            for(Tablebase table : tablebases.tables.values()){
+                names.add(table.getName());
+            }
+            names.sort(null);
+            System.out.println("테이블 " + names.size() + "개: " + String.join(", ", names));
+            if(args.length < 2){
+                return;
+            }
+
+            Board board = Fen.parse(args[1]);
+            long start = System.nanoTime();
+            int value = tablebases.probe(board);
+            long elapsed = System.nanoTime() - start;
+            if(value == NOT_FOUND){
+                System.out.println("테이블에 없는 국면입니다");
+                return;
+            }
+            System.out.println("값: " + Tablebase.describe(value) + " (" + elapsed / 1000 + "us)");
+
+            MoveGenerator generator = new MoveGenerator(board);
+            MoveList legalMoves = new MoveList();
+            generator.generateLegalMoves(legalMoves);
+            int best = tablebases.bestMove(board, legalMoves);
+            for(int i = 0; i < legalMoves.size(); i++){
+                int move = legalMoves.get(i);
+                String san = Pgn.toSan(board, generator, move);
+                board.makeMove(move);
+                int child = tablebases.probeMaterial(board);
+                board.unmakeLastMove();
+                System.out.println((move == best ? "* " : "  ") + san + ": 상대 " + Tablebase.describe(child));
+            }
+        }
+    }
+}
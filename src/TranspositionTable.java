@@ -0,0 +1,277 @@
+import java.util.Arrays;
+import java.util.Locale;
+
+//탐색 결과를 국면 해시(Zobrist 키)로 저장하는 고정 크기 치환표
+//항목 하나는 long 2개 (키 ^ 데이터, 데이터)로 저장하여, 여러 스레드가 동시에 써서 섞인 항목은 키 검사에서 걸러짐
+//버킷마다 항목 2개: 교체 정책(ReplacementPolicy)에 따라 두 칸 중 덮어쓸 칸을 고름
+final class TranspositionTable {
+    static final int DEFAULT_MEGABYTES = 16;
+
+    //저장된 점수의 성격
+    static final int BOUND_NONE = 0;
+    static final int BOUND_EXACT = 1;
+    //점수가 실제 값 이상 (베타 컷)
+    static final int BOUND_LOWER = 2;
+    //점수가 실제 값 이하 (알파를 못 넘음)
+    static final int BOUND_UPPER = 3;
+
+    enum ReplacementPolicy {
+        //첫 칸은 더 깊은 결과(또는 이전 탐색의 결과)만 덮어쓰고, 밀려난 결과는 둘째 칸에 저장
+        DEPTH_PREFERRED,
+        //새 결과를 항상 저장: 같은 국면의 칸, 빈 칸, 더 오래된 칸, 더 얕은 칸 순으로 골라 덮어씀 (버킷의 두 칸을 모두 씀)
+        ALWAYS_REPLACE;
+
+        //명령행 표기 (depth-preferred, always-replace)
+        static ReplacementPolicy parse(String text){
+            return valueOf(text.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    //데이터 비트 구성: 수 20비트 | 점수 22비트 | 깊이 8비트 | bound 2비트 | 세대 8비트
+    private static final int MOVE_BITS = 20;
+    private static final int SCORE_SHIFT = 20;
+    private static final int SCORE_BITS = 22;
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+    private static final int DEPTH_SHIFT = 42;
+    private static final int BOUND_SHIFT = 50;
+    private static final int GENERATION_SHIFT = 52;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int ENTRIES_PER_BUCKET = 2;
+    private static final int LONGS_PER_BUCKET = LONGS_PER_ENTRY * ENTRIES_PER_BUCKET;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] table;
+    private final long bucketMask;
+    private final ReplacementPolicy policy;
+    private int generation;
+
+    //탐색 스레드 하나의 치환표 통계
+    //표는 모든 스레드가 공유하므로 카운터를 표에 두면 스레드마다 같은 캐시 줄에 쓰게 되어 (거짓 공유) 카운터는 Search 마다 따로 둠
+    static final class Stats {
+        long probes;
+        long hits;
+        //다른 국면이 버킷을 차지하고 있어 찾지 못한 횟수
+        long collisions;
+        long stores;
+
+        void clear(){
+            probes = 0;
+            hits = 0;
+            collisions = 0;
+            stores = 0;
+        }
+
+        void add(Stats other){
+            probes += other.probes;
+            hits += other.hits;
+            collisions += other.collisions;
+            stores += other.stores;
+        }
+
+        double hitRate(){
+            return (probes == 0) ? 0 : (double) hits / probes;
+        }
+
+        double collisionRate(){
+            return (probes == 0) ? 0 : (double) collisions / probes;
+        }
+    }
+
+    TranspositionTable(int megabytes){
+        this(megabytes, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    //megabytes 안에 들어가는 가장 큰 2의 거듭제곱 개수의 버킷을 할당
+    TranspositionTable(int megabytes, ReplacementPolicy policy){
+        if(megabytes < 1){
+            throw new IllegalArgumentException("치환표 크기는 1MB 이상이어야 합니다: " + megabytes);
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        if(buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8){
+            buckets = Long.highestOneBit((Integer.MAX_VALUE - 8) / LONGS_PER_BUCKET);
+        }
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+        this.policy = policy;
+    }
+
+    //새 탐색 시작 (이전 탐색의 항목을 우선 교체 대상으로 만듦)
+    void newSearch(){
+        generation = (generation + 1) & 0xFF;
+    }
+
+    //모든 항목 초기화
+    void clear(){
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    //키에 해당하는 항목의 데이터 (없으면 0, 데이터는 move/score/depth/bound 로 해석), 결과를 stats 에 셈
+    long probe(long key, Stats stats){
+        stats.probes++;
+        int base = bucketIndex(key);
+        boolean occupied = false;
+        for(int i = 0; i < ENTRIES_PER_BUCKET; i++){
+            int slot = base + i * LONGS_PER_ENTRY;
+            long data = table[slot + 1];
+            if(data == 0){
+                continue;
+            }
+            if((table[slot] ^ data) == key){
+                stats.hits++;
+                return data;
+            }
+            occupied = true;
+        }
+        if(occupied){
+            stats.collisions++;
+        }
+        return 0;
+    }
+
+    //탐색 결과 저장 (score 는 이미 노드 기준 mate 거리로 보정된 값), 저장 횟수를 stats 에 셈
+    void store(long key, int move, int score, int depth, int bound, Stats stats){
+        stats.stores++;
+        int base = bucketIndex(key);
+        long data = pack(move, score, depth, bound, generation);
+
+        int first = base;
+        int second = base + LONGS_PER_ENTRY;
+        long firstData = table[first + 1];
+        long secondData = table[second + 1];
+        if(policy == ReplacementPolicy.ALWAYS_REPLACE){
+            int slot = alwaysReplaceSlot(key, first, second, firstData, secondData);
+            long oldData = table[slot + 1];
+            //같은 국면을 덮어쓰는데 새 결과에 수가 없으면 이전 수 유지
+            if(move == PackedMove.NONE && oldData != 0 && (table[slot] ^ oldData) == key){
+                data = pack(move(oldData), score, depth, bound, generation);
+            }
+            write(slot, key, data);
+            return;
+        }
+
+        //같은 국면이 이미 있으면 그 칸을 갱신 (새 결과에 수가 없으면 이전 수 유지)
+        if(firstData != 0 && (table[first] ^ firstData) == key){
+            if(move == PackedMove.NONE){
+                data = pack(move(firstData), score, depth, bound, generation);
+            }
+            if(depth >= depth(firstData) || bound == BOUND_EXACT){
+                write(first, key, data);
+            }
+            return;
+        }
+        if(secondData != 0 && (table[second] ^ secondData) == key && move == PackedMove.NONE){
+            data = pack(move(secondData), score, depth, bound, generation);
+        }
+        //첫 칸: 비었거나, 이전 탐색의 결과이거나, 새 결과가 더 깊으면 교체하고 밀려난 항목은 둘째 칸으로
+        if(firstData == 0 || generation(firstData) != generation || depth >= depth(firstData)){
+            if(firstData != 0){
+                table[second] = table[first];
+                table[second + 1] = firstData;
+            }
+            write(first, key, data);
+        }
+        else{
+            write(second, key, data);
+        }
+    }
+
+    //ALWAYS_REPLACE 에서 덮어쓸 칸
+    private int alwaysReplaceSlot(long key, int first, int second, long firstData, long secondData){
+        if(firstData != 0 && (table[first] ^ firstData) == key){
+            return first;
+        }
+        if(secondData != 0 && (table[second] ^ secondData) == key){
+            return second;
+        }
+        if(firstData == 0){
+            return first;
+        }
+        if(secondData == 0){
+            return second;
+        }
+        //세대는 8비트에서 돌아가므로 현재 세대와의 차이로 나이를 비교
+        int firstAge = (generation - generation(firstData)) & 0xFF;
+        int secondAge = (generation - generation(secondData)) & 0xFF;
+        if(firstAge != secondAge){
+            return (firstAge > secondAge) ? first : second;
+        }
+        return (depth(secondData) < depth(firstData)) ? second : first;
+    }
+
+    private void write(int slot, long key, long data){
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    private int bucketIndex(long key){
+        return (int) (key & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    //bound 가 0 이 아니므로 저장된 데이터는 항상 0 이 아님 (0 은 빈 칸 표시)
+    private static long pack(int move, int score, int depth, int bound, int generation){
+        return (move & ((1L << MOVE_BITS) - 1))
+                | ((long) (score + SCORE_OFFSET) << SCORE_SHIFT)
+                | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+    }
+
+    static int move(long data){
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    static int score(long data){
+        return (int) ((data >>> SCORE_SHIFT) & ((1L << SCORE_BITS) - 1)) - SCORE_OFFSET;
+    }
+
+    static int depth(long data){
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    static int bound(long data){
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data){
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    //mate 점수는 루트 기준이 아니라 저장하는 노드 기준 거리로 바꿔 저장 (다른 경로에서 읽어도 맞도록)
+    static int scoreToTable(int score, int ply){
+        if(score >= Search.MATE_THRESHOLD) return score + ply;
+        if(score <= -Search.MATE_THRESHOLD) return score - ply;
+        return score;
+    }
+
+    static int scoreFromTable(int score, int ply){
+        if(score >= Search.MATE_THRESHOLD) return score - ply;
+        if(score <= -Search.MATE_THRESHOLD) return score + ply;
+        return score;
+    }
+
+    //버킷 수 x 버킷당 항목 수
+    long getCapacity(){
+        return (bucketMask + 1) * ENTRIES_PER_BUCKET;
+    }
+
+    //앞쪽 1000 버킷 중 현재 세대 항목이 차지한 비율 (천분율)
+    int getHashfull(){
+        int sample = (int) Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for(int b = 0; b < sample; b++){
+            for(int i = 0; i < ENTRIES_PER_BUCKET; i++){
+                long data = table[b * LONGS_PER_BUCKET + i * LONGS_PER_ENTRY + 1];
+                if(data != 0 && generation(data) == generation){
+                    used++;
+                }
+            }
+        }
+        return used * 1000 / (sample * ENTRIES_PER_BUCKET);
+    }
+
+    ReplacementPolicy getPolicy(){
+        return policy;
+    }
+}
@@ -0,0 +1,45 @@
+//Board.makeMove 로 둔 수를 되돌리기 위한 기록
+//Board 가 스택 형태로 재사용하므로 unmakeMove 이후에는 내용을 믿으면 안 됨
+final class UndoInfo {
+    int move;                   //둔 수 (PackedMove)
+    Piece movedPiece;           //움직인 기물
+    boolean movedPieceHadMoved; //움직이기 전 hasMoved 값
+    Piece promotedPiece;        //프로모션으로 새로 놓인 기물 (없으면 null)
+
+    Piece capturedPiece;        //잡힌 기물 (없으면 null)
+    int capturedSquare;         //잡힌 기물이 있던 칸 (앙파상은 목적지와 다름)
+    int capturedListIndex;      //잡힌 기물이 기물 목록에서 있던 자리
+
+    Piece rook;                 //캐슬링으로 함께 움직인 룩 (없으면 null)
+    int rookFrom;
+    int rookTo;
+    boolean rookHadMoved;
+
+    int previousLastMove;       //이 수 이전의 lastMove (PackedMove)
+    long previousZobristKey;    //이 수 이전의 Zobrist 키
+    int previousCastlingRights;
+    int previousEnPassantFile;
+    int previousHalfmoveClock;
+    int previousFullmoveNumber;
+
+    //재사용 전에 이전 기록을 지움
+    void clear(){
+        move = PackedMove.NONE;
+        movedPiece = null;
+        movedPieceHadMoved = false;
+        promotedPiece = null;
+        capturedPiece = null;
+        capturedSquare = -1;
+        capturedListIndex = -1;
+        rook = null;
+        rookFrom = -1;
+        rookTo = -1;
+        rookHadMoved = false;
+        previousLastMove = PackedMove.NONE;
+        previousZobristKey = 0L;
+        previousCastlingRights = 0;
+        previousEnPassantFile = -1;
+        previousHalfmoveClock = 0;
+        previousFullmoveNumber = 1;
+    }
+}
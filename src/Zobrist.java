@@ -0,0 +1,61 @@
+import java.util.Random;
+
+//국면 식별용 Zobrist 해시 난수표
+//시드를 고정하여 실행할 때마다 같은 국면은 같은 키를 가짐 (파일로 저장한 키와 호환)
+final class Zobrist {
+    private static final long SEED = 0x5EED_C4E55L;
+
+    //[색상 * 6 + 기물 종류][칸]
+    private static final long[][] PIECES = new long[12][64];
+    //캐슬링 가능 여부 4비트 조합별 키 (조합 0의 키는 0)
+    private static final long[] CASTLING = new long[16];
+    //앙파상 가능한 열별 키
+    private static final long[] EN_PASSANT = new long[8];
+    //흑 차례일 때 더하는 키
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        Random random = new Random(SEED);
+        for(int i = 0; i < PIECES.length; i++){
+            for(int square = 0; square < 64; square++){
+                PIECES[i][square] = random.nextLong();
+            }
+        }
+        //각 권리의 키를 XOR 로 합쳐 조합 키를 만듦 (권리 하나가 바뀌면 해당 키만 바뀜)
+        long[] rightKeys = new long[4];
+        for(int i = 0; i < 4; i++){
+            rightKeys[i] = random.nextLong();
+        }
+        for(int rights = 0; rights < 16; rights++){
+            for(int i = 0; i < 4; i++){
+                if((rights & (1 << i)) != 0){
+                    CASTLING[rights] ^= rightKeys[i];
+                }
+            }
+        }
+        for(int file = 0; file < 8; file++){
+            EN_PASSANT[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist(){
+    }
+
+    static long piece(Color color, PieceType type, int square){
+        return PIECES[color.ordinal() * 6 + type.ordinal()][square];
+    }
+
+    static long castling(int rights){
+        return CASTLING[rights];
+    }
+
+    //file 이 음수면 앙파상 없음
+    static long enPassant(int file){
+        return (file < 0) ? 0L : EN_PASSANT[file];
+    }
+
+    static long blackToMove(){
+        return BLACK_TO_MOVE;
+    }
+}